@@ -16,14 +16,11 @@
 
 package com.xxlabaza.luntic.client;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import feign.Feign;
 import feign.Headers;
 import feign.Param;
 import feign.RequestLine;
 import feign.Response;
-import feign.Retryer.Default;
-import feign.jackson.JacksonDecoder;
 import feign.jackson.JacksonEncoder;
 import feign.okhttp.OkHttpClient;
 import java.util.List;
@@ -51,6 +48,10 @@ interface Api {
     @Headers("Accept: application/json")
     List<Instance> getByGroup (@Param("group") String group);
 
+    @RequestLine("GET /{group}")
+    @Headers("Accept: application/json")
+    Response streamByGroup (@Param("group") String group);
+
     @RequestLine("GET /{group}/{id}")
     @Headers("Accept: application/json")
     Instance getByGroupAndId (@Param("group") String group, @Param("id") String id);
@@ -59,6 +60,10 @@ interface Api {
     @Headers("Accept: application/json")
     Map<String, List<Instance>> getAll ();
 
+    @RequestLine("GET /")
+    @Headers("Accept: application/json")
+    Response streamAll ();
+
     @RequestLine("PUT /{group}/{id}")
     @Headers("Accept: application/json")
     Instance update (@Param("group") String group, @Param("id") String id);
@@ -73,17 +78,29 @@ interface Api {
     @RequestLine("DELETE /{group}/{id}")
     void delete (@Param("group") String group, @Param("id") String id);
 
-    static Api connect (String url, ObjectMapper mapper) {
-        if (!url.startsWith("http")) {
-            url = "http://" + url;
-        }
+    static String url (String url) {
+        return url.startsWith("http")
+               ? url
+               : "http://" + url;
+    }
+
+    static Api connect (String url, Codec codec, okhttp3.OkHttpClient http) {
+        return connect(url, codec, http, null);
+    }
+
+    static Api connect (String url, Codec codec, okhttp3.OkHttpClient http, TimingListener timingListener) {
         return Feign.builder()
-                .client(new OkHttpClient())
-                .encoder(new JacksonEncoder())
-                .decoder(new JacksonDecoder(mapper))
+                .client(new OkHttpClient(http))
+                .encoder(new JacksonEncoder(codec.getJson()))
+                .decoder(new CodecDecoder(codec, timingListener))
+                .requestInterceptor(template -> {
+                    if (template.headers().containsKey("Accept")) {
+                        template.header("Accept", codec.accept());
+                    }
+                })
                 .decode404()
-                .retryer(new Default())
+                .retryer(new BulkLane.NotRejectedRetryer())
                 .errorDecoder(new ErrorDecoder())
-                .target(Api.class, url);
+                .target(Api.class, url(url));
     }
 }
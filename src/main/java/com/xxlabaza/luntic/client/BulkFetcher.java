@@ -0,0 +1,119 @@
+/*
+ * Copyright 2017 Artem Labazin <xxlabaza@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.xxlabaza.luntic.client;
+
+import static java.util.Collections.unmodifiableMap;
+import static java.util.Collections.unmodifiableSet;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BiFunction;
+
+/**
+ * Resolves batches of instance ids.
+ * <p/>
+ * Ids, found in the local snapshot, are served right away, the rest are fetched one by one
+ * in parallel. The number of parallel requests is limited by the pool size, which is shared
+ * by all batches of a client, so concurrent batches can't flood Luntic. The whole batch
+ * has one deadline, unfinished requests are cancelled when it comes.
+ *
+ * @author Artem Labazin <xxlabaza@gmail.com>
+ * @since Oct 18, 2026
+ */
+final class BulkFetcher {
+
+    private final BiFunction<String, String, Instance> loader;
+
+    private final ExecutorService requests;
+
+    BulkFetcher (int concurrency, BiFunction<String, String, Instance> loader) {
+        this.loader = loader;
+        // threads are started on demand and die when idle, so clients without bulk lookups don't have them
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(concurrency, concurrency,
+                                                             60, SECONDS, new LinkedBlockingQueue<>(),
+                                                             Threads.factory("luntic-lookups"));
+        executor.allowCoreThreadTimeOut(true);
+        requests = executor;
+    }
+
+    BulkLookup lookup (RegistrySnapshot snapshot, String group, Collection<String> ids, long timeoutNanos) {
+        long deadline = System.nanoTime() + timeoutNanos;
+        Set<String> unique = new LinkedHashSet<>(ids);
+        Map<String, Instance> local = new LinkedHashMap<>();
+        Map<String, Future<Instance>> futures = new LinkedHashMap<>();
+        Map<String, Exception> errors = new LinkedHashMap<>();
+        for (String id : unique) {
+            Instance instance = snapshot.instance(group, id);
+            if (instance != null) {
+                local.put(id, instance);
+                continue;
+            }
+            try {
+                futures.put(id, requests.submit(() -> loader.apply(group, id)));
+            } catch (RejectedExecutionException ex) {
+                errors.put(id, new DiscoveryException("Client is deregistered", ex));
+            }
+        }
+
+        Map<String, Instance> found = new LinkedHashMap<>(unique.size() * 4 / 3 + 1);
+        Set<String> missing = new LinkedHashSet<>();
+        for (String id : unique) {
+            Instance instance = local.get(id);
+            Future<Instance> future = futures.get(id);
+            if (instance == null && future != null) {
+                try {
+                    instance = future.get(Math.max(deadline - System.nanoTime(), 0), NANOSECONDS);
+                    if (instance == null) {
+                        missing.add(id);
+                    }
+                } catch (TimeoutException ex) {
+                    future.cancel(true);
+                    errors.put(id, new TimeoutException("Deadline exceeded before instance '" + id + "' was fetched"));
+                } catch (ExecutionException ex) {
+                    Throwable cause = ex.getCause();
+                    errors.put(id, cause instanceof Exception
+                                   ? (Exception) cause
+                                   : ex);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    futures.values().forEach(it -> it.cancel(true));
+                    throw new DiscoveryException("Interrupted while looking up instances", ex);
+                }
+            }
+            if (instance != null) {
+                found.put(id, instance);
+            }
+        }
+        return new BulkLookup(unmodifiableMap(found), unmodifiableSet(missing), unmodifiableMap(errors));
+    }
+
+    void close () {
+        requests.shutdownNow();
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ * Copyright 2017 Artem Labazin <xxlabaza@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.xxlabaza.luntic.client;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import feign.RetryableException;
+import feign.Retryer;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.BufferedSource;
+import okio.ForwardingSource;
+import okio.Okio;
+
+/**
+ * Bounded lane of read requests.
+ * <p/>
+ * Reads, like multi-megabyte {@link Api#getAll()} responses, are limited by the number
+ * of requests in flight. A request holds its slot until its response body is read to the end
+ * or closed, so the limit covers the body transfer, not only waiting for the headers.
+ * Requests over the limit wait for a free slot, which pushes back on callers instead
+ * of piling up connections, and fail with {@link RejectedException} if they can't get it in time.
+ * Heartbeats and registration use a separate HTTP client (see {@link Discovery}),
+ * so they never queue behind reads.
+ *
+ * @author Artem Labazin <xxlabaza@gmail.com>
+ * @since Oct 18, 2026
+ */
+final class BulkLane implements Interceptor {
+
+    private final Semaphore slots;
+
+    private final long maxWaitNanos;
+
+    BulkLane (int concurrency, long maxWaitNanos) {
+        slots = new Semaphore(concurrency, true);
+        this.maxWaitNanos = maxWaitNanos;
+    }
+
+    @Override
+    public Response intercept (Chain chain) throws IOException {
+        try {
+            if (!slots.tryAcquire(maxWaitNanos, NANOSECONDS)) {
+                throw new RejectedException("Too many concurrent reads from Luntic, no free slot for "
+                                            + chain.request().url());
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a free read slot");
+        }
+        Response response;
+        try {
+            response = chain.proceed(chain.request());
+        } catch (IOException | RuntimeException | Error ex) {
+            slots.release();
+            throw ex;
+        }
+        ResponseBody body = response.body();
+        if (body == null) {
+            slots.release();
+            return response;
+        }
+        return response.newBuilder()
+                .body(new SlotBody(body))
+                .build();
+    }
+
+    /**
+     * Read rejected, because the lane had no free slot during the max wait time.
+     * It is not retried (see {@link NotRejectedRetryer}): the request has already waited,
+     * and the lane is still busy.
+     */
+    static final class RejectedException extends IOException {
+
+        private static final long serialVersionUID = -2412538707924146415L;
+
+        RejectedException (String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * Feign's default retryer, which propagates {@link RejectedException} at once,
+     * otherwise a rejected read would wait for a slot up to 5 times.
+     */
+    static final class NotRejectedRetryer implements Retryer {
+
+        private final Retryer delegate = new Retryer.Default();
+
+        @Override
+        public void continueOrPropagate (RetryableException ex) {
+            if (ex.getCause() instanceof RejectedException) {
+                throw ex;
+            }
+            delegate.continueOrPropagate(ex);
+        }
+
+        @Override
+        public Retryer clone () {
+            return new NotRejectedRetryer();
+        }
+    }
+
+    /**
+     * Response body, which frees the slot once, when it is read to the end or closed.
+     */
+    private final class SlotBody extends ResponseBody {
+
+        private final ResponseBody delegate;
+
+        private final AtomicBoolean released;
+
+        private final BufferedSource source;
+
+        SlotBody (ResponseBody delegate) {
+            this.delegate = delegate;
+            released = new AtomicBoolean();
+            source = Okio.buffer(new ForwardingSource(delegate.source()) {
+
+                @Override
+                public long read (Buffer sink, long byteCount) throws IOException {
+                    long read = super.read(sink, byteCount);
+                    if (read == -1) {
+                        release();
+                    }
+                    return read;
+                }
+
+                @Override
+                public void close () throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        release();
+                    }
+                }
+            });
+        }
+
+        @Override
+        public MediaType contentType () {
+            return delegate.contentType();
+        }
+
+        @Override
+        public long contentLength () {
+            return delegate.contentLength();
+        }
+
+        @Override
+        public BufferedSource source () {
+            return source;
+        }
+
+        private void release () {
+            if (released.compareAndSet(false, true)) {
+                slots.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2017 Artem Labazin <xxlabaza@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.xxlabaza.luntic.client;
+
+import java.util.Map;
+import java.util.Set;
+import lombok.Value;
+
+/**
+ * Result of {@link Discovery#instances(String, java.util.Collection)} lookup.
+ * <p/>
+ * Every requested id is in exactly one of the collections: found instances,
+ * missing ids or per-id errors.
+ *
+ * @author Artem Labazin <xxlabaza@gmail.com>
+ * @since Oct 18, 2026
+ */
+@Value
+public class BulkLookup {
+
+    /**
+     * Found instances by their ids, in order of requested ids.
+     */
+    Map<String, Instance> instances;
+
+    /**
+     * Ids, which don't exist in Luntic.
+     */
+    Set<String> missing;
+
+    /**
+     * Ids, which couldn't be resolved, with failure reasons. Ids, which weren't resolved
+     * before the deadline, have {@link java.util.concurrent.TimeoutException}.
+     */
+    Map<String, Exception> errors;
+
+    /**
+     * Tells if all requested ids were resolved - found or definitely missing.
+     *
+     * @return {@code true} if there are no errors
+     */
+    public boolean isComplete () {
+        return errors.isEmpty();
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2017 Artem Labazin <xxlabaza@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.xxlabaza.luntic.client;
+
+import static com.xxlabaza.luntic.client.WireFormat.JSON;
+import static com.xxlabaza.luntic.client.WireFormat.SMILE;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import feign.Response;
+import java.util.Collection;
+import java.util.Map.Entry;
+import lombok.Getter;
+
+/**
+ * Holds object mappers for all supported wire formats and negotiates between them.
+ * <p/>
+ * Requests ask for the preferred format via {@code Accept} header with JSON as a lower quality
+ * alternative, responses are decoded according to their {@code Content-Type}.
+ *
+ * @author Artem Labazin <xxlabaza@gmail.com>
+ * @since Oct 18, 2026
+ */
+final class Codec {
+
+    @Getter
+    private final WireFormat format;
+
+    @Getter
+    private final ObjectMapper json;
+
+    @Getter
+    private final ObjectMapper smile;
+
+    private final String accept;
+
+    Codec (WireFormat format) {
+        this.format = format;
+        json = new ObjectMapper();
+        smile = new ObjectMapper(new SmileFactory());
+        accept = format == JSON
+                 ? JSON.getMediaType()
+                 : format.getMediaType() + ", " + JSON.getMediaType() + ";q=0.9";
+    }
+
+    String accept () {
+        return accept;
+    }
+
+    ObjectMapper mapper (Response response) {
+        String contentType = response.headers().entrySet().stream()
+                .filter(it -> it.getKey().equalsIgnoreCase("Content-Type"))
+                .map(Entry::getValue)
+                .flatMap(Collection::stream)
+                .findAny()
+                .orElse("");
+
+        return mapper(contentType);
+    }
+
+    ObjectMapper mapper (String contentType) {
+        return contentType != null && contentType.startsWith(SMILE.getMediaType())
+               ? smile
+               : json;
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2017 Artem Labazin <xxlabaza@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.xxlabaza.luntic.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
+import feign.Response;
+import feign.Util;
+import feign.codec.Decoder;
+import java.io.IOException;
+import java.io.PushbackInputStream;
+import java.lang.reflect.Type;
+
+/**
+ * Byte oriented replacement of {@link feign.jackson.JacksonDecoder},
+ * which picks object mapper according to response content type.
+ *
+ * @author Artem Labazin <xxlabaza@gmail.com>
+ * @since Oct 18, 2026
+ */
+class CodecDecoder implements Decoder {
+
+    private final Codec codec;
+
+    private final TimingListener timingListener;
+
+    CodecDecoder (Codec codec, TimingListener timingListener) {
+        this.codec = codec;
+        this.timingListener = timingListener;
+    }
+
+    @Override
+    public Object decode (Response response, Type type) throws IOException {
+        if (response.status() == 404) {
+            return Util.emptyValueOf(type);
+        }
+        if (response.body() == null) {
+            return null;
+        }
+
+        ObjectMapper mapper = codec.mapper(response);
+        try (PushbackInputStream stream = new PushbackInputStream(response.body().asInputStream(), 1)) {
+            int first = stream.read();
+            if (first == -1) {
+                return null; // Eagerly returning null avoids "No content to map due to end-of-input"
+            }
+            stream.unread(first);
+            if (timingListener == null) {
+                return mapper.readerFor(mapper.constructType(type)).readValue(stream);
+            }
+            Object scope = ScopedTimingListener.startDecode(timingListener);
+            long start = System.nanoTime();
+            Object result = mapper.readerFor(mapper.constructType(type)).readValue(stream);
+            ScopedTimingListener.finishDecode(timingListener, scope, type.getTypeName(), System.nanoTime() - start);
+            return result;
+        } catch (RuntimeJsonMappingException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw ex;
+        }
+    }
+}
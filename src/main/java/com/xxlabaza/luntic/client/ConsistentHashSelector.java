@@ -0,0 +1,370 @@
+/*
+ * Copyright 2017 Artem Labazin <xxlabaza@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.xxlabaza.luntic.client;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+import lombok.Builder;
+
+/**
+ * Key-based instance selection over a consistent hash ring with virtual nodes.
+ * <p/>
+ * Every instance owns a number of points on the ring, derived from its id, and a key
+ * belongs to the instance with the first point after the key's hash. When group membership
+ * changes, only keys of added or removed instances move. Optional weights from meta data
+ * scale the number of points, so heavier instances get proportionally more keys. Weights come
+ * from remote instances, so they are clamped to {@code [0, 100]}, otherwise a single instance
+ * could make the ring arbitrarily large.
+ * <p/>
+ * Rings are rebuilt, when {@link RegistrySnapshot} changes, incrementally: points of instances,
+ * which are still in the group with the same weight, are reused and merged with points of new ones.
+ * Lookups are a hash and a binary search over a primitive array, without allocations.
+ *
+ * @author Artem Labazin <xxlabaza@gmail.com>
+ * @since Oct 18, 2026
+ */
+public final class ConsistentHashSelector {
+
+    static final int DEFAULT_VIRTUAL_NODES = 160;
+
+    static final double MAX_WEIGHT = 100.D;
+
+    private static final Logger LOGGER = Logger.getLogger(ConsistentHashSelector.class.getName());
+
+    private static final long FNV_OFFSET = 0xCBF29CE484222325L;
+
+    private static final long FNV_PRIME = 0x100000001B3L;
+
+    private final Supplier<RegistrySnapshot> snapshots;
+
+    private final String weightKey;
+
+    private final int virtualNodes;
+
+    private final ConcurrentMap<String, Ring> rings;
+
+    /**
+     * Creates new selector.
+     *
+     * @param snapshots    source of registry snapshots, usually {@code discovery::snapshot}
+     * @param weightKey    meta data key with instance weight, optional, all weights are {@code 1} without it
+     * @param virtualNodes number of ring points per unit of weight, default - 160
+     */
+    @Builder
+    private ConsistentHashSelector (Supplier<RegistrySnapshot> snapshots, String weightKey, Integer virtualNodes) {
+        this.snapshots = Objects.requireNonNull(snapshots, "snapshots");
+        this.weightKey = weightKey;
+        this.virtualNodes = virtualNodes != null
+                            ? virtualNodes
+                            : DEFAULT_VIRTUAL_NODES;
+        rings = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Selects an instance of the group for the key.
+     *
+     * @param group requested instance group name
+     * @param key   routing key, like a session or cache key
+     *
+     * @return selected instance or {@code null} if group has no instances
+     */
+    public Instance select (String group, CharSequence key) {
+        long hash = FNV_OFFSET;
+        for (int i = 0; i < key.length(); i++) {
+            hash = (hash ^ key.charAt(i)) * FNV_PRIME;
+        }
+        return select(group, hash);
+    }
+
+    /**
+     * Selects an instance of the group for the numeric key.
+     *
+     * @param group requested instance group name
+     * @param key   routing key
+     *
+     * @return selected instance or {@code null} if group has no instances
+     */
+    public Instance select (String group, long key) {
+        return ring(group).select(mix(key));
+    }
+
+    Ring ring (String group) {
+        List<Instance> instances = snapshots.get().group(group);
+        Ring ring = rings.get(group);
+        if (ring != null && ring.source == instances) {
+            return ring;
+        }
+        return rings.compute(group, (name, previous) -> previous != null && previous.source == instances
+                                                        ? previous
+                                                        : Ring.build(previous, instances, this));
+    }
+
+    double weight (Instance instance) {
+        if (weightKey == null) {
+            return 1.D;
+        }
+        Object value = instance.getMeta()
+                .map(it -> it.get(weightKey))
+                .orElse(null);
+
+        if (value instanceof Number) {
+            return ((Number) value).doubleValue();
+        }
+        if (value != null) {
+            try {
+                return Double.parseDouble(value.toString());
+            } catch (NumberFormatException ex) {
+                // malformed weight is treated as the default one
+            }
+        }
+        return 1.D;
+    }
+
+    int points (double weight) {
+        return weight > 0
+               ? Math.max(1, (int) Math.round(virtualNodes * Math.min(weight, MAX_WEIGHT)))
+               : 0;
+    }
+
+    /**
+     * SplitMix64 finalizer, spreads close values over the whole ring.
+     */
+    static long mix (long value) {
+        long result = (value ^ value >>> 30) * 0xBF58476D1CE4E5B9L;
+        result = (result ^ result >>> 27) * 0x94D049BB133111EBL;
+        return result ^ result >>> 31;
+    }
+
+    static long idHash (Instance instance) {
+        if (instance.isCompactId()) {
+            return instance.getIdMostSignificantBits() ^ mix(instance.getIdLeastSignificantBits());
+        }
+        String id = instance.getRawId();
+        if (id == null) {
+            return FNV_OFFSET;
+        }
+        long hash = FNV_OFFSET;
+        for (int i = 0; i < id.length(); i++) {
+            hash = (hash ^ id.charAt(i)) * FNV_PRIME;
+        }
+        return hash;
+    }
+
+    /**
+     * Immutable ring of one group.
+     */
+    static final class Ring {
+
+        private static final Ring EMPTY = new Ring(null, new long[0], new int[0], new Instance[0], new int[0]);
+
+        private static final int INSERTION_SORT_THRESHOLD = 16;
+
+        /**
+         * The snapshot's list, the ring was built from.
+         */
+        private final List<Instance> source;
+
+        private final long[] points;
+
+        private final int[] owners;
+
+        private final Instance[] instances;
+
+        /**
+         * Number of points of every instance.
+         */
+        private final int[] counts;
+
+        private Ring (List<Instance> source, long[] points, int[] owners, Instance[] instances, int[] counts) {
+            this.source = source;
+            this.points = points;
+            this.owners = owners;
+            this.instances = instances;
+            this.counts = counts;
+        }
+
+        Instance select (long hash) {
+            if (points.length == 0) {
+                return null;
+            }
+            int index = Arrays.binarySearch(points, hash);
+            if (index < 0) {
+                index = -index - 1;
+                if (index == points.length) {
+                    index = 0;
+                }
+            }
+            return instances[owners[index]];
+        }
+
+        int size () {
+            return points.length;
+        }
+
+        long[] points () {
+            return points.clone();
+        }
+
+        static Ring build (Ring previous, List<Instance> source, ConsistentHashSelector selector) {
+            if (source.isEmpty()) {
+                return new Ring(source, EMPTY.points, EMPTY.owners, EMPTY.instances, EMPTY.counts);
+            }
+            Ring old = previous != null
+                       ? previous
+                       : EMPTY;
+
+            Map<String, Integer> oldIndexes = new HashMap<>(old.instances.length * 4 / 3 + 1);
+            for (int i = 0; i < old.instances.length; i++) {
+                oldIndexes.put(old.instances[i].getId(), i);
+            }
+
+            Instance[] instances = source.toArray(new Instance[0]);
+            int[] counts = new int[instances.length];
+            int[] remap = new int[old.instances.length];
+            Arrays.fill(remap, -1);
+            boolean[] reused = new boolean[instances.length];
+            int added = 0;
+            for (int i = 0; i < instances.length; i++) {
+                double weight = selector.weight(instances[i]);
+                counts[i] = selector.points(weight);
+                Integer oldIndex = oldIndexes.get(instances[i].getId());
+                if (oldIndex != null && old.counts[oldIndex] == counts[i]) {
+                    remap[oldIndex] = i;
+                    reused[i] = true;
+                    continue;
+                }
+                added += counts[i];
+                if (weight > MAX_WEIGHT) {
+                    // reported once, when instance's points are created
+                    Instance instance = instances[i];
+                    LOGGER.warning(() -> String.format("Weight %s of instance %s/%s is clamped to %s",
+                                                       weight, instance.getGroup(), instance.getId(), MAX_WEIGHT));
+                }
+            }
+
+            // points of new instances, sorted together with their owners
+            long[] newPoints = new long[added];
+            int[] newOwners = new int[added];
+            int position = 0;
+            for (int i = 0; i < instances.length; i++) {
+                if (reused[i]) {
+                    continue;
+                }
+                long seed = idHash(instances[i]);
+                for (int j = counts[i] - 1; j >= 0; j--) {
+                    newPoints[position] = mix(seed + j * 0x9E3779B97F4A7C15L);
+                    newOwners[position] = i;
+                    position++;
+                }
+            }
+            sort(newPoints, newOwners, 0, added);
+
+            // merges surviving old points with new ones, both sequences are sorted
+            long[] points = new long[old.points.length + added];
+            int[] owners = new int[points.length];
+            int size = 0;
+            int oldPosition = 0;
+            int newPosition = 0;
+            while (true) {
+                while (oldPosition < old.points.length && remap[old.owners[oldPosition]] < 0) {
+                    oldPosition++;
+                }
+                boolean hasOld = oldPosition < old.points.length;
+                boolean hasNew = newPosition < added;
+                if (!hasOld && !hasNew) {
+                    break;
+                }
+                if (hasOld && (!hasNew || old.points[oldPosition] <= newPoints[newPosition])) {
+                    points[size] = old.points[oldPosition];
+                    owners[size] = remap[old.owners[oldPosition]];
+                    oldPosition++;
+                } else {
+                    points[size] = newPoints[newPosition];
+                    owners[size] = newOwners[newPosition];
+                    newPosition++;
+                }
+                size++;
+            }
+            return new Ring(source, Arrays.copyOf(points, size), Arrays.copyOf(owners, size), instances, counts);
+        }
+
+        /**
+         * Sorts points in {@code [from, to)} range with their owners, in place and without boxing.
+         * It is a quicksort, points are well mixed hashes, so median of three pivots are good enough.
+         */
+        static void sort (long[] points, int[] owners, int from, int to) {
+            while (to - from > INSERTION_SORT_THRESHOLD) {
+                int middle = (from + to) >>> 1;
+                long pivot = median(points[from], points[middle], points[to - 1]);
+                int left = from;
+                int right = to - 1;
+                while (left <= right) {
+                    while (points[left] < pivot) {
+                        left++;
+                    }
+                    while (points[right] > pivot) {
+                        right--;
+                    }
+                    if (left <= right) {
+                        swap(points, owners, left, right);
+                        left++;
+                        right--;
+                    }
+                }
+                // recursion goes into the smaller part, so the stack depth is logarithmic
+                if (right + 1 - from < to - left) {
+                    sort(points, owners, from, right + 1);
+                    from = left;
+                } else {
+                    sort(points, owners, left, to);
+                    to = right + 1;
+                }
+            }
+            for (int i = from + 1; i < to; i++) {
+                long point = points[i];
+                int owner = owners[i];
+                int j = i - 1;
+                for (; j >= from && points[j] > point; j--) {
+                    points[j + 1] = points[j];
+                    owners[j + 1] = owners[j];
+                }
+                points[j + 1] = point;
+                owners[j + 1] = owner;
+            }
+        }
+
+        private static long median (long first, long second, long third) {
+            return Math.max(Math.min(first, second), Math.min(Math.max(first, second), third));
+        }
+
+        private static void swap (long[] points, int[] owners, int first, int second) {
+            long point = points[first];
+            points[first] = points[second];
+            points[second] = point;
+            int owner = owners[first];
+            owners[first] = owners[second];
+            owners[second] = owner;
+        }
+    }
+}
@@ -0,0 +1,310 @@
+/*
+ * Copyright 2017 Artem Labazin <xxlabaza@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.xxlabaza.luntic.client;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.emptyMap;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import java.io.IOException;
+import java.io.PushbackInputStream;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import okhttp3.Headers;
+import okhttp3.HttpUrl;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+/**
+ * {@link Api} implementation, which sends requests straight to OkHttp.
+ * <p/>
+ * Feign dispatches every call through a reflective proxy, expands request line templates
+ * and checks headers templates. Here URLs are the base URL with appended path segments,
+ * request bodies are written by a prepared writer, and responses are read by object readers,
+ * resolved once per wire format and result type.
+ * <p/>
+ * Behaviour follows the Feign client: {@code 404} gives empty results, other error statuses
+ * throw {@link DiscoveryException}, and I/O failures are retried like by Feign's default retryer.
+ *
+ * @author Artem Labazin <xxlabaza@gmail.com>
+ * @since Oct 18, 2026
+ */
+final class DirectApi implements Api {
+
+    static final int MAX_ATTEMPTS = 5;
+
+    static final long RETRY_PERIOD = 100;
+
+    static final long MAX_RETRY_PERIOD = 1000;
+
+    private static final RequestBody EMPTY_BODY = RequestBody.create(null, new byte[0]);
+
+    private static final MediaType JSON_BODY = MediaType.parse("application/json");
+
+    private final OkHttpClient http;
+
+    private final HttpUrl url;
+
+    private final HttpUrl rootUrl;
+
+    private final Codec codec;
+
+    private final TimingListener timingListener;
+
+    private final ObjectWriter metaWriter;
+
+    private final Readers instanceReaders;
+
+    private final Readers groupReaders;
+
+    private final Readers registryReaders;
+
+    DirectApi (HttpUrl url, Codec codec, OkHttpClient http, TimingListener timingListener) {
+        this.http = http;
+        this.url = url;
+        rootUrl = url.newBuilder()
+                .addPathSegment("")
+                .build();
+        this.codec = codec;
+        this.timingListener = timingListener;
+        metaWriter = codec.getJson().writerFor(Map.class);
+
+        TypeFactory types = codec.getJson().getTypeFactory();
+        JavaType instance = types.constructType(Instance.class);
+        JavaType group = types.constructCollectionType(List.class, instance);
+        JavaType registry = types.constructMapType(Map.class, types.constructType(String.class), group);
+        instanceReaders = new Readers(codec, instance, Instance.class.getName());
+        groupReaders = new Readers(codec, group, "java.util.List<" + instanceReaders.typeName + '>');
+        registryReaders = new Readers(codec, registry,
+                                      "java.util.Map<java.lang.String, " + groupReaders.typeName + '>');
+    }
+
+    @Override
+    public feign.Response create (String group) {
+        return raw(request(url(group), true).post(EMPTY_BODY));
+    }
+
+    @Override
+    public feign.Response create (String group, Map<String, Object> meta) {
+        return raw(request(url(group), true).post(json(meta)));
+    }
+
+    @Override
+    public List<Instance> getByGroup (String group) {
+        List<Instance> result = decode("Api#getByGroup(String)", request(url(group), true).get(), groupReaders);
+        return result != null
+               ? result
+               : emptyList();
+    }
+
+    @Override
+    public feign.Response streamByGroup (String group) {
+        return raw(request(url(group), true).get());
+    }
+
+    @Override
+    public Instance getByGroupAndId (String group, String id) {
+        return decode("Api#getByGroupAndId(String,String)", request(url(group, id), true).get(), instanceReaders);
+    }
+
+    @Override
+    public Map<String, List<Instance>> getAll () {
+        Map<String, List<Instance>> result = decode("Api#getAll()", request(rootUrl, true).get(), registryReaders);
+        return result != null
+               ? result
+               : emptyMap();
+    }
+
+    @Override
+    public feign.Response streamAll () {
+        return raw(request(rootUrl, true).get());
+    }
+
+    @Override
+    public Instance update (String group, String id) {
+        return decode("Api#update(String,String)", request(url(group, id), true).put(EMPTY_BODY), instanceReaders);
+    }
+
+    @Override
+    public Instance update (String group, String id, Map<String, Object> meta) {
+        return decode("Api#update(String,String,Map)", request(url(group, id), true).put(json(meta)),
+                      instanceReaders);
+    }
+
+    @Override
+    public void delete (String group, String id) {
+        try (Response response = execute(request(url(group, id), false).delete())) {
+            if (!response.isSuccessful()) {
+                throw error("Api#delete(String,String)", response);
+            }
+        }
+    }
+
+    private HttpUrl url (String group) {
+        return url.newBuilder()
+                .addPathSegment(group)
+                .build();
+    }
+
+    private HttpUrl url (String group, String id) {
+        return url.newBuilder()
+                .addPathSegment(group)
+                .addPathSegment(id)
+                .build();
+    }
+
+    private Request.Builder request (HttpUrl requestUrl, boolean accept) {
+        Request.Builder builder = new Request.Builder().url(requestUrl);
+        return accept
+               ? builder.header("Accept", codec.accept())
+               : builder;
+    }
+
+    private RequestBody json (Map<String, Object> meta) {
+        try {
+            return RequestBody.create(JSON_BODY, metaWriter.writeValueAsBytes(meta));
+        } catch (JsonProcessingException ex) {
+            throw new DiscoveryException("Couldn't write meta data. Reason: " + ex.getMessage(), ex);
+        }
+    }
+
+    private <T> T decode (String method, Request.Builder builder, Readers readers) {
+        try (Response response = execute(builder)) {
+            if (response.code() == 404) {
+                return null;
+            }
+            if (!response.isSuccessful()) {
+                throw error(method, response);
+            }
+            ResponseBody body = response.body();
+            ObjectMapper mapper = codec.mapper(response.header("Content-Type"));
+            try (PushbackInputStream stream = new PushbackInputStream(body.byteStream(), 1)) {
+                int first = stream.read();
+                if (first == -1) {
+                    return null;
+                }
+                stream.unread(first);
+                Object scope = ScopedTimingListener.startDecode(timingListener);
+                long start = System.nanoTime();
+                ObjectReader reader = mapper == codec.getSmile()
+                                      ? readers.smile
+                                      : readers.json;
+                T result = reader.readValue(stream);
+                if (timingListener != null) {
+                    ScopedTimingListener.finishDecode(timingListener, scope, readers.typeName,
+                                                      System.nanoTime() - start);
+                }
+                return result;
+            }
+        } catch (IOException ex) {
+            throw new DiscoveryException("Couldn't read response of " + method + ". Reason: " + ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * Returns response as is, like Feign does for methods with {@link feign.Response} result.
+     * The body stays unread, the caller must close the response.
+     */
+    private feign.Response raw (Request.Builder builder) {
+        Response response = execute(builder);
+        ResponseBody body = response.body();
+        Integer length = body.contentLength() >= 0 && body.contentLength() <= Integer.MAX_VALUE
+                         ? (int) body.contentLength()
+                         : null;
+        return feign.Response.builder()
+                .status(response.code())
+                .reason(response.message())
+                .headers(headers(response.headers()))
+                .body(body.byteStream(), length)
+                .build();
+    }
+
+    /**
+     * Executes request with the same retries as Feign's default retryer: up to {@link #MAX_ATTEMPTS}
+     * attempts with 1.5 times growing pauses between them. Reads rejected by {@link BulkLane} are not retried.
+     */
+    private Response execute (Request.Builder builder) {
+        Request request = builder.build();
+        long period = RETRY_PERIOD;
+        for (int attempt = 1;; attempt++) {
+            try {
+                return http.newCall(request).execute();
+            } catch (IOException ex) {
+                if (attempt >= MAX_ATTEMPTS || ex instanceof BulkLane.RejectedException) {
+                    String message = ex.getMessage() + " executing " + request.method() + ' ' + request.url();
+                    throw new DiscoveryException(message, ex);
+                }
+            }
+            try {
+                MILLISECONDS.sleep(period);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                String message = "Interrupted while retrying " + request.method() + ' ' + request.url();
+                throw new DiscoveryException(message, ex);
+            }
+            period = Math.min((long) (period * 1.5D), MAX_RETRY_PERIOD);
+        }
+    }
+
+    private static DiscoveryException error (String method, Response response) {
+        String message = String.format("status %d reading %s", response.code(), method);
+        try {
+            message += "; content:\n" + response.body().string();
+        } catch (IOException ex) {
+            // the message has the status anyway
+        }
+        return new DiscoveryException(message);
+    }
+
+    private static Map<String, Collection<String>> headers (Headers headers) {
+        Map<String, Collection<String>> result = new LinkedHashMap<>(headers.size() * 4 / 3 + 1);
+        for (String name : headers.names()) {
+            result.put(name, headers.values(name));
+        }
+        return result;
+    }
+
+    /**
+     * Readers of one result type for each wire format.
+     */
+    private static final class Readers {
+
+        private final ObjectReader json;
+
+        private final ObjectReader smile;
+
+        private final String typeName;
+
+        Readers (Codec codec, JavaType type, String typeName) {
+            json = codec.getJson().readerFor(type);
+            smile = codec.getSmile().readerFor(type);
+            this.typeName = typeName;
+        }
+    }
+}
@@ -16,23 +16,41 @@
 
 package com.xxlabaza.luntic.client;
 
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.MINUTES;
 import static java.util.concurrent.TimeUnit.SECONDS;
 import static lombok.AccessLevel.PACKAGE;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import feign.Response;
 import feign.RetryableException;
+import java.time.Duration;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import lombok.Getter;
-import lombok.Value;
+import lombok.RequiredArgsConstructor;
+import okhttp3.ConnectionPool;
+import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
 
 /**
  * Client for working with Luntic discovery service.
+ * <p/>
+ * Requests go through two lanes. Registration, heartbeats and other writes of client's own instance
+ * use a separate HTTP client with its own connections and their own scheduler thread; heartbeats are
+ * never delayed by the rate limiter. Reads share a bounded lane (see {@link DiscoveryBuilder#readLane(int, long,
+ * TimeUnit)}) and background refreshes run on another thread, so a slow multi-megabyte read can't
+ * make the client miss heartbeats.
  *
  * @author Artem Labazin <xxlabaza@gmail.com>
  * @since Jul 24, 2017
@@ -48,23 +66,125 @@ public class Discovery {
         return new DiscoveryBuilder();
     }
 
+    /**
+     * Limits rate of requests to Luntic from all clients in the JVM.
+     * <p/>
+     * The limiter is a token bucket, shared by every {@link Discovery} instance, including already created ones.
+     * Requests over the limit are delayed, not rejected, so the client smooths its own load on the server.
+     * By default there is no limit.
+     *
+     * @param requestsPerSecond steady rate of requests, non positive value removes the limit
+     * @param burst             number of requests, which can be sent at once after idle period
+     */
+    public static void rateLimit (double requestsPerSecond, int burst) {
+        RateLimiter.SHARED.configure(requestsPerSecond, burst);
+    }
+
+    /**
+     * Returns uniformly distributed random delay.
+     *
+     * @param max maximum delay, inclusive
+     *
+     * @return delay from {@code 0} to {@code max}, or {@code 0} for non positive {@code max}
+     */
+    static long jitter (long max) {
+        return max > 0
+               ? ThreadLocalRandom.current().nextLong(max + 1)
+               : 0;
+    }
+
+    private static final long INITIAL_REGISTRATION_BACKOFF = 500;
+
+    private static final long MAX_REGISTRATION_BACKOFF = 30_000;
+
+    private static final long INITIAL_HEARTBEAT_BACKOFF = 250;
+
     private final Api api;
 
+    private final Api controlApi;
+
+    private final OkHttpClient heartbeatHttp;
+
+    private final HttpUrl url;
+
+    private final StreamingReader streamingReader;
+
+    private final Refresher refresher;
+
+    private InstanceCache instanceCache;
+
+    private long heartbeatJitter;
+
+    private ParallelDecoder parallelDecoder;
+
+    private BulkFetcher bulkFetcher;
+
+    private long bulkTimeout;
+
     @Getter
     private final String group;
 
     @Getter(PACKAGE)
-    private String id;
+    private volatile String id;
 
     @Getter
     private Map<String, Object> meta;
 
-    private ScheduledExecutorService heartbeatExecutor;
+    private final CompletableFuture<Discovery> registration;
 
-    private Discovery (Api api, String group, Map<String, Object> meta) {
+    private ScheduledExecutorService executor;
+
+    private ScheduledExecutorService readExecutor;
+
+    private volatile Heartbeat heartbeat;
+
+    private volatile boolean deregistered;
+
+    /**
+     * Instances expiration time in milliseconds, advertised by Luntic at registration, {@code 0} if unknown.
+     */
+    @Getter(PACKAGE)
+    private volatile long expiry;
+
+    private LivenessFilter liveness;
+
+    private final RegistrationListener registrationListener;
+
+    private Discovery (Api api, Api controlApi, OkHttpClient heartbeatHttp, HttpUrl url, Codec codec, String group,
+                       Map<String, Object> meta, RegistrationListener registrationListener
+    ) {
         this.api = api;
+        this.controlApi = controlApi;
+        this.heartbeatHttp = heartbeatHttp;
+        this.url = url;
+        this.streamingReader = new StreamingReader(codec);
+        this.refresher = new Refresher(api, this::fetchAll, this::alive);
         this.group = group;
         this.meta = meta;
+        this.registrationListener = registrationListener;
+        registration = new CompletableFuture<>();
+    }
+
+    /**
+     * Returns client's registration completion.
+     * <p/>
+     * The future is already completed for clients created via {@link DiscoveryBuilder#register()},
+     * and completes in background for ones created via {@link DiscoveryBuilder#registerAsync()}.
+     * If client is deregistered before registration succeeds, the future completes exceptionally.
+     *
+     * @return registration future, which is completed with this client
+     */
+    public CompletableFuture<Discovery> registration () {
+        return registration;
+    }
+
+    /**
+     * Tells if client is registered in Luntic.
+     *
+     * @return {@code true} if registration was completed successfully
+     */
+    public boolean isRegistered () {
+        return id != null && registration.isDone() && !registration.isCompletedExceptionally();
     }
 
     /**
@@ -73,7 +193,7 @@ public class Discovery {
      * @return current client instance.
      */
     public Instance me () {
-        return api.getByGroupAndId(group, id);
+        return api.getByGroupAndId(group, requireId());
     }
 
     /**
@@ -84,19 +204,88 @@ public class Discovery {
      * @return list of instances.
      */
     public List<Instance> group (String group) {
-        return api.getByGroup(group);
+        List<Instance> instances = api.getByGroup(group);
+        return liveness != null
+               ? liveness.apply(instances)
+               : instances;
+    }
+
+    /**
+     * Returns instances of specified group with meta data bound to the specified type.
+     * <p/>
+     * Meta data is decoded directly into meta type's objects, without intermediate maps,
+     * which makes both decoding and reading meta fields cheaper than with {@link #group(String)}.
+     *
+     * @param group    requested instance group name
+     * @param metaType type of instances meta data, usually a POJO
+     * @param <M>      meta data type
+     *
+     * @return list of typed instances
+     */
+    public <M> List<TypedInstance<M>> group (String group, Class<M> metaType) {
+        return streamingReader.readGroup(api.streamByGroup(group), metaType);
     }
 
     /**
      * Returns instance by its group and id.
+     * If instance cache is enabled (see {@link DiscoveryBuilder#instanceCache(long, Duration, Duration)}),
+     * the result, including absence of instance, may be served from the cache.
      *
      * @param group requested instance group name
      * @param id    requested instance id
      *
-     * @return requested instance
+     * @return requested instance or {@code null} if there is no such instance
      */
     public Instance instance (String group, String id) {
-        return api.getByGroupAndId(group, id);
+        return instanceCache != null
+               ? instanceCache.get(group, id)
+               : api.getByGroupAndId(group, id);
+    }
+
+    /**
+     * Drops cached result of {@link #instance(String, String)} lookup, if instance cache is enabled.
+     *
+     * @param group instance group name
+     * @param id    instance id
+     */
+    public void invalidate (String group, String id) {
+        if (instanceCache != null) {
+            instanceCache.invalidate(group, id);
+        }
+    }
+
+    /**
+     * Returns instances by their group and ids, with deadline, set by
+     * {@link DiscoveryBuilder#bulkLookup(int, long, TimeUnit)}.
+     *
+     * @param group requested instances group name
+     * @param ids   requested instance ids
+     *
+     * @return found instances, missing ids and per-id errors
+     *
+     * @see #instances(String, Collection, long, TimeUnit)
+     */
+    public BulkLookup instances (String group, Collection<String> ids) {
+        return instances(group, ids, bulkTimeout, MILLISECONDS);
+    }
+
+    /**
+     * Returns instances by their group and ids.
+     * <p/>
+     * Instances from current {@link #snapshot()} are served locally, the rest are fetched
+     * like by {@link #instance(String, String)}, in parallel, but no more requests at once than
+     * {@link DiscoveryBuilder#bulkLookup(int, long, TimeUnit)} concurrency. The method returns,
+     * when all ids are resolved or the deadline comes, so results may be partial.
+     *
+     * @param group   requested instances group name
+     * @param ids     requested instance ids
+     * @param timeout deadline of the whole lookup
+     * @param unit    timeout time unit
+     *
+     * @return found instances, missing ids and per-id errors
+     */
+    public BulkLookup instances (String group, Collection<String> ids, long timeout, TimeUnit unit) {
+        return bulkFetcher.lookup(snapshot(), group, ids, unit.toNanos(timeout));
     }
 
     /**
@@ -114,7 +303,137 @@ public class Discovery {
      * @return map group->instances
      */
     public Map<String, List<Instance>> all () {
-        return api.getAll();
+        return alive(fetchAll());
+    }
+
+    /**
+     * Iterates over absolutely all instances in discovery service.
+     * <p/>
+     * Unlike {@link #all()}, the response is decoded incrementally and every instance is passed
+     * to the consumer as soon as it is read, so the whole registry is never held in memory at once.
+     *
+     * @param consumer instances consumer
+     */
+    public void forEachInstance (Consumer<? super Instance> consumer) {
+        streamingReader.forEach(api.streamAll(), consumer);
+    }
+
+    /**
+     * Fetches absolutely all instances and packs them into off-heap memory.
+     * <p/>
+     * Instances are streamed from the response straight into the registry, so neither
+     * the response nor the result keeps a per-instance object graph on the heap.
+     * It is meant for very large registries, where such graphs drive long GC pauses.
+     *
+     * @return new off-heap registry
+     */
+    public OffHeapRegistry allOffHeap () {
+        OffHeapRegistry.Builder builder = OffHeapRegistry.builder();
+        forEachInstance(builder::add);
+        return builder.build();
+    }
+
+    /**
+     * Returns current registry snapshot.
+     * <p/>
+     * It is a single volatile read, so it is cheap enough to be called on every request.
+     * Snapshots are replaced by background refresher (see {@link DiscoveryBuilder#refreshPeriod(long, TimeUnit)})
+     * or by {@link #refresh()} calls. Until the first refresh, an empty snapshot with version {@code 0} is returned.
+     *
+     * @return current registry snapshot
+     */
+    public RegistrySnapshot snapshot () {
+        return refresher.snapshot();
+    }
+
+    /**
+     * Fetches absolutely all instances from discovery service and publishes them as new current snapshot.
+     *
+     * @return new registry snapshot
+     */
+    public RegistrySnapshot refresh () {
+        return refresher.refresh();
+    }
+
+    /**
+     * Returns current period of background refreshing and observed registry change rate.
+     * With {@link DiscoveryBuilder#adaptiveRefresh(long, long, TimeUnit)} the period changes
+     * after every refresh, so it is worth publishing as a gauge.
+     *
+     * @return refresh metrics, {@link RefreshStats#getIntervalMillis()} is {@code 0}
+     *         if background refreshing is disabled
+     */
+    public RefreshStats refreshStats () {
+        return refresher.stats();
+    }
+
+    /**
+     * Limits snapshots to specified groups.
+     * <p/>
+     * Every refresh fetches all tracked groups in one cycle and publishes them as one consistent snapshot.
+     * Depending on observed latencies and payload sizes, the groups are fetched either by one request
+     * for the whole registry or by parallel per-group requests.
+     *
+     * @param groups tracked group names, {@code null} or empty set for tracking the whole registry
+     */
+    public void track (Set<String> groups) {
+        refresher.track(groups);
+    }
+
+    /**
+     * Adds listener of registry changes. Changes are computed between consecutive snapshots,
+     * so listeners are notified only when snapshots are refreshed - in background or by {@link #refresh()}.
+     *
+     * @param listener registry changes listener
+     */
+    public void addRegistryListener (RegistryListener listener) {
+        refresher.addListener(listener);
+    }
+
+    /**
+     * Removes previously added registry changes listener.
+     *
+     * @param listener registry changes listener
+     */
+    public void removeRegistryListener (RegistryListener listener) {
+        refresher.removeListener(listener);
+    }
+
+    /**
+     * Creates zone-aware router over {@link #snapshot()}, which prefers instances from this client's zone.
+     * Client's zone is taken from its registration meta data by the same key.
+     *
+     * @param zoneKey meta data key with zone name
+     *
+     * @return new router
+     */
+    public ZoneAwareRouter zoneRouter (String zoneKey) {
+        Object zone = meta != null
+                      ? meta.get(zoneKey)
+                      : null;
+
+        return ZoneAwareRouter.builder()
+                .snapshots(this::snapshot)
+                .zoneKey(zoneKey)
+                .zone(zone != null
+                      ? zone.toString()
+                      : null)
+                .callerGroup(group)
+                .build();
+    }
+
+    /**
+     * Creates consistent hash selector over {@link #snapshot()} for sticky key-based routing.
+     *
+     * @param weightKey meta data key with instance weight, {@code null} for equal weights
+     *
+     * @return new selector
+     */
+    public ConsistentHashSelector hashSelector (String weightKey) {
+        return ConsistentHashSelector.builder()
+                .snapshots(this::snapshot)
+                .weightKey(weightKey)
+                .build();
     }
 
     /**
@@ -126,7 +445,7 @@ public class Discovery {
      */
     public Instance update (Map<String, Object> meta) {
         this.meta = meta;
-        return api.update(group, id, meta);
+        return controlApi.update(group, requireId(), meta);
     }
 
     /**
@@ -135,17 +454,42 @@ public class Discovery {
      * @return updated instance
      */
     public Instance update () {
-        return api.update(group, id);
+        return controlApi.update(group, requireId());
     }
 
     /**
      * Deregisters client from Luntic discovery service.
+     * <p/>
+     * Background threads are stopped even if the delete request fails (for example, Luntic is down),
+     * the failure is rethrown after that.
      */
     public void deregister () {
-        api.delete(group, id);
-        if (heartbeatExecutor != null) {
-            heartbeatExecutor.shutdownNow();
-            heartbeatExecutor = null;
+        deregistered = true;
+        registration.completeExceptionally(new DiscoveryException("Client was deregistered"));
+        try {
+            if (id != null) {
+                controlApi.delete(group, id);
+            }
+        } finally {
+            release();
+        }
+    }
+
+    private void release () {
+        refresher.close();
+        bulkFetcher.close();
+        if (instanceCache != null) {
+            instanceCache.invalidateAll();
+        }
+        synchronized (this) {
+            if (executor != null) {
+                executor.shutdownNow();
+                executor = null;
+            }
+            if (readExecutor != null) {
+                readExecutor.shutdownNow();
+                readExecutor = null;
+            }
         }
         if (meta != null) {
             meta.clear();
@@ -153,15 +497,65 @@ public class Discovery {
         }
     }
 
+    private Map<String, List<Instance>> fetchAll () {
+        return parallelDecoder != null
+               ? parallelDecoder.decode(api.streamAll())
+               : api.getAll();
+    }
+
+    private Map<String, List<Instance>> alive (Map<String, List<Instance>> registry) {
+        return liveness != null
+               ? liveness.apply(registry)
+               : registry;
+    }
+
     private void register () {
+        long expire = createInstance();
+        if (deregistered) {
+            // deregistration came while the instance was being created, it could miss the new id
+            deleteLateInstance();
+            throw new DiscoveryException("Client was deregistered");
+        }
+        if (expire > 0) {
+            // random phase offset spreads heartbeats of clients registered at the same moment,
+            // it is never positive, so the first heartbeat can't be late
+            long delay = expire - jitter(Math.min(heartbeatJitter, expire / 2));
+            executor().schedule(new HeartbeatTask(expire), delay, MILLISECONDS);
+        }
+    }
+
+    /**
+     * Deletes instance, created after deregistration. The thread is interrupted by shutdown
+     * of the executor, and an interrupted thread fails requests, so the flag is cleared
+     * for the request and restored after it.
+     */
+    private void deleteLateInstance () {
+        boolean interrupted = Thread.interrupted();
+        try {
+            controlApi.delete(group, id);
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Creates client's instance in Luntic.
+     *
+     * @return heartbeat period in milliseconds, or {@code 0} if Luntic doesn't expire instances
+     */
+    private long createInstance () {
         Response response;
         try {
             response = meta != null
-                       ? api.create(group, meta)
-                       : api.create(group);
+                       ? controlApi.create(group, meta)
+                       : controlApi.create(group);
         } catch (RetryableException ex) {
             throw new DiscoveryException("Couldn't register to discovery service. Reason: " + ex.getMessage());
         }
+        // only status and headers are needed, the body must be released for returning connection to the pool
+        response.close();
 
         if (response.status() != 201) {
             String message = String.format("Couldn't register to discovery service. Status: %d, reason: %s",
@@ -177,26 +571,65 @@ public class Discovery {
                 .orElseThrow(() -> new DiscoveryException("There is no 'Location' header"));
 
         id = location.substring(location.lastIndexOf('/') + 1);
+        heartbeat = new Heartbeat(heartbeatHttp, url, group, id);
 
-        long expire = response.headers().entrySet().stream()
+        long expired = response.headers().entrySet().stream()
                 .filter(it -> it.getKey().equalsIgnoreCase("X-Expired-Time"))
                 .map(Entry::getValue)
                 .flatMap(Collection::stream)
                 .map(Integer::parseInt)
                 .findAny()
-                .orElse(0) - 1;
+                .orElse(0);
+        expiry = expired > 0
+                 ? SECONDS.toMillis(expired)
+                 : 0;
 
-        if (expire > 0) {
-            if (heartbeatExecutor == null) {
-                heartbeatExecutor = Executors.newSingleThreadScheduledExecutor();
-            }
-            heartbeatExecutor.scheduleAtFixedRate(
-                    new HeartbeatTask(),
-                    0,
-                    expire,
-                    SECONDS
-            );
+        long expire = expired - 1;
+        return expire > 0
+               ? SECONDS.toMillis(expire)
+               : 0;
+    }
+
+    private void registerAsync (long delay) {
+        executor().schedule(new RegistrationTask(INITIAL_REGISTRATION_BACKOFF), delay, MILLISECONDS);
+    }
+
+    private void startRefresher (long minPeriod, long maxPeriod) {
+        if (minPeriod > 0) {
+            refresher.start(readExecutor(), new RefreshInterval(minPeriod, Math.max(minPeriod, maxPeriod)));
+        }
+    }
+
+    /**
+     * Returns scheduler of registration and heartbeats. After deregistration it is never recreated,
+     * so tasks finishing their requests late can't start a new scheduler thread.
+     */
+    private synchronized ScheduledExecutorService executor () {
+        if (deregistered) {
+            throw new RejectedExecutionException("Client is deregistered");
+        }
+        if (executor == null) {
+            executor = Executors.newSingleThreadScheduledExecutor(Threads.factory("luntic-heartbeats"));
+        }
+        return executor;
+    }
+
+    /**
+     * Returns scheduler of background refreshes, separate from heartbeats one.
+     */
+    private synchronized ScheduledExecutorService readExecutor () {
+        if (readExecutor == null) {
+            readExecutor = Executors.newSingleThreadScheduledExecutor(Threads.factory("luntic-refresh"));
+        }
+        return readExecutor;
+    }
+
+    private String requireId () {
+        String current = id;
+        if (current == null) {
+            throw new DiscoveryException("Client isn't registered yet");
         }
+        return current;
     }
 
     /**
@@ -210,6 +643,44 @@ public class Discovery {
 
         private Map<String, Object> meta;
 
+        private WireFormat format = WireFormat.JSON;
+
+        private long refreshPeriod;
+
+        private long maxRefreshPeriod;
+
+        private TimingListener timingListener;
+
+        private boolean flightRecorder;
+
+        private boolean directApi;
+
+        private RegistrationListener registrationListener = RegistrationListener.NONE;
+
+        private long instanceCacheSize;
+
+        private Duration instanceCacheHitTtl;
+
+        private Duration instanceCacheMissTtl;
+
+        private long startupJitter;
+
+        private long heartbeatJitter;
+
+        private ForkJoinPool decodingPool;
+
+        private int bulkConcurrency = 8;
+
+        private int readConcurrency = 16;
+
+        private long readMaxWait = 60_000;
+
+        private long bulkTimeout = 10_000;
+
+        private LivenessMode livenessMode;
+
+        private long livenessTolerance;
+
         /**
          * Sets url for client.
          * It is primary parameter, without default value.
@@ -253,6 +724,246 @@ public class Discovery {
             return this;
         }
 
+        /**
+         * Sets preferred format of server responses.
+         * It is optional parameter, default value - {@link WireFormat#JSON}
+         * <p/>
+         * Binary formats are negotiated via {@code Accept} header, so client transparently
+         * falls back to JSON if server doesn't support them. Request bodies are always sent as JSON.
+         *
+         * @param format preferred wire format
+         *
+         * @return builder for further client creating
+         */
+        public DiscoveryBuilder format (WireFormat format) {
+            this.format = format;
+            return this;
+        }
+
+        /**
+         * Enables background refreshing of {@link Discovery#snapshot()} with specified period.
+         * It is optional parameter, by default snapshot is refreshed only by {@link Discovery#refresh()} calls.
+         *
+         * @param period refresh period
+         * @param unit   period time unit
+         *
+         * @return builder for further client creating
+         */
+        public DiscoveryBuilder refreshPeriod (long period, TimeUnit unit) {
+            this.refreshPeriod = unit.toMillis(period);
+            this.maxRefreshPeriod = refreshPeriod;
+            return this;
+        }
+
+        /**
+         * Enables background refreshing of {@link Discovery#snapshot()} with period, which follows
+         * registry change rate. A refresh with added, removed or updated instances resets the period
+         * to minimum, every refresh without changes doubles it, up to maximum.
+         * It is optional parameter, it replaces {@link #refreshPeriod(long, TimeUnit)}.
+         *
+         * @param minPeriod refresh period right after changes
+         * @param maxPeriod refresh period of stable registry
+         * @param unit      periods time unit
+         *
+         * @return builder for further client creating
+         */
+        public DiscoveryBuilder adaptiveRefresh (long minPeriod, long maxPeriod, TimeUnit unit) {
+            if (minPeriod <= 0 || maxPeriod < minPeriod) {
+                throw new DiscoveryException("Invalid refresh period bounds: " + minPeriod + ".." + maxPeriod);
+            }
+            this.refreshPeriod = unit.toMillis(minPeriod);
+            this.maxRefreshPeriod = unit.toMillis(maxPeriod);
+            return this;
+        }
+
+        /**
+         * Sets receiver of per-request timing breakdowns (DNS, connect, server wait, response reading)
+         * and of response decoding durations.
+         * It is optional parameter, default value - {@code null}
+         *
+         * @param timingListener timings receiver
+         *
+         * @return builder for further client creating
+         */
+        public DiscoveryBuilder timingListener (TimingListener timingListener) {
+            this.timingListener = timingListener;
+            return this;
+        }
+
+        /**
+         * Enables publishing of request and decoding timings as Java Flight Recorder events
+         * ({@code com.xxlabaza.luntic.Request} and {@code com.xxlabaza.luntic.Decode}).
+         * The setting is silently ignored on JVMs without {@code jdk.jfr} API.
+         *
+         * @param flightRecorder {@code true} for enabling JFR events
+         *
+         * @return builder for further client creating
+         */
+        public DiscoveryBuilder flightRecorder (boolean flightRecorder) {
+            this.flightRecorder = flightRecorder;
+            return this;
+        }
+
+        /**
+         * Sends requests straight to HTTP client instead of Feign's dynamic proxy. Request URLs and
+         * response readers are prepared once, so per-call overhead is lower, and there is no
+         * reflection on the call path. Responses, errors and retries are handled the same way.
+         * It is optional parameter, default value - {@code false}.
+         *
+         * @param directApi {@code true} for bypassing Feign
+         *
+         * @return builder for further client creating
+         */
+        public DiscoveryBuilder directApi (boolean directApi) {
+            this.directApi = directApi;
+            return this;
+        }
+
+        /**
+         * Sets listener of client's registration state.
+         * Heartbeats supervisor invokes it when Luntic forgets the client (for example,
+         * it was expired during network outage) and when registration is restored.
+         * It is optional parameter, default listener does nothing.
+         *
+         * @param registrationListener registration state listener
+         *
+         * @return builder for further client creating
+         */
+        public DiscoveryBuilder registrationListener (RegistrationListener registrationListener) {
+            this.registrationListener = registrationListener;
+            return this;
+        }
+
+        /**
+         * Enables in-process cache of {@link Discovery#instance(String, String)} lookups.
+         * Not found instances are cached too, as negative entries with separate time to live.
+         * It is optional parameter, by default every lookup is a request to Luntic.
+         *
+         * @param maximumSize maximum number of cached lookups
+         * @param hitTtl      time to live of found instances
+         * @param missTtl     time to live of not found instances
+         *
+         * @return builder for further client creating
+         */
+        public DiscoveryBuilder instanceCache (long maximumSize, Duration hitTtl, Duration missTtl) {
+            this.instanceCacheSize = maximumSize;
+            this.instanceCacheHitTtl = hitTtl;
+            this.instanceCacheMissTtl = missTtl;
+            return this;
+        }
+
+        /**
+         * Sets maximum random delay before registration.
+         * It is optional parameter, default value - {@code 0}
+         * <p/>
+         * When a large deployment rolls out, the delay spreads registration requests of its clients over time.
+         * For {@link #register()} the delay blocks the caller, {@link #registerAsync()} returns immediately.
+         *
+         * @param maxDelay maximum delay
+         * @param unit     delay time unit
+         *
+         * @return builder for further client creating
+         */
+        public DiscoveryBuilder startupJitter (long maxDelay, TimeUnit unit) {
+            this.startupJitter = unit.toMillis(maxDelay);
+            return this;
+        }
+
+        /**
+         * Sets maximum random phase offset of heartbeats.
+         * It is optional parameter, default value - {@code 0}
+         * <p/>
+         * The first heartbeat is sent earlier by a random offset, so clients, which registered at the same moment,
+         * don't heartbeat in lockstep. The offset never exceeds a half of heartbeat period.
+         *
+         * @param maxOffset maximum offset
+         * @param unit      offset time unit
+         *
+         * @return builder for further client creating
+         */
+        public DiscoveryBuilder heartbeatJitter (long maxOffset, TimeUnit unit) {
+            this.heartbeatJitter = unit.toMillis(maxOffset);
+            return this;
+        }
+
+        /**
+         * Enables parallel decoding of whole registry responses ({@link Discovery#all()} and snapshot refreshes)
+         * in the specified pool. Groups are decoded by separate tasks, so it helps with multi-megabyte
+         * registries of many groups. Smile and small responses are still decoded sequentially.
+         * It is optional parameter, by default responses are decoded by calling thread.
+         *
+         * @param pool decoding pool, for example {@link ForkJoinPool#commonPool()}
+         *
+         * @return builder for further client creating
+         */
+        public DiscoveryBuilder parallelDecoding (ForkJoinPool pool) {
+            this.decodingPool = pool;
+            return this;
+        }
+
+        /**
+         * Sets limits of the read lane. A read takes its slot until its response body is read,
+         * reads over the concurrency wait for a free slot, and fail without retries if they don't
+         * get it in time. Registration and heartbeats have their own lane
+         * and aren't limited. It is optional parameter, default values - 16 parallel reads
+         * and 60 seconds wait.
+         *
+         * @param concurrency maximum number of reads in flight
+         * @param maxWait     maximum wait for a free slot
+         * @param unit        wait time unit
+         *
+         * @return builder for further client creating
+         */
+        public DiscoveryBuilder readLane (int concurrency, long maxWait, TimeUnit unit) {
+            if (concurrency <= 0) {
+                throw new DiscoveryException("Invalid read lane concurrency: " + concurrency);
+            }
+            this.readConcurrency = concurrency;
+            this.readMaxWait = unit.toMillis(maxWait);
+            return this;
+        }
+
+        /**
+         * Sets limits of {@link Discovery#instances(String, Collection)} lookups.
+         * The concurrency is shared by all lookups of the client.
+         * It is optional parameter, default values - 8 parallel requests and 10 seconds deadline.
+         *
+         * @param concurrency maximum number of parallel requests
+         * @param timeout     default deadline of a lookup
+         * @param unit        timeout time unit
+         *
+         * @return builder for further client creating
+         */
+        public DiscoveryBuilder bulkLookup (int concurrency, long timeout, TimeUnit unit) {
+            if (concurrency <= 0) {
+                throw new DiscoveryException("Invalid bulk lookup concurrency: " + concurrency);
+            }
+            this.bulkConcurrency = concurrency;
+            this.bulkTimeout = unit.toMillis(timeout);
+            return this;
+        }
+
+        /**
+         * Enables client-side filtering of instances, which missed their heartbeats, but weren't
+         * removed by Luntic's cleaner yet. An instance is stale if its last modified time is older than
+         * expiration time, advertised by Luntic at registration, plus the tolerance for clock skew between hosts.
+         * <p/>
+         * The filter is applied to {@link Discovery#group(String)} and {@link Discovery#all()} results,
+         * and to snapshots - once per refresh. It does nothing if Luntic doesn't expire instances.
+         * It is optional parameter, by default instances aren't filtered.
+         *
+         * @param mode      what to do with stale instances
+         * @param tolerance clock skew tolerance
+         * @param unit      tolerance time unit
+         *
+         * @return builder for further client creating
+         */
+        public DiscoveryBuilder livenessFilter (LivenessMode mode, long tolerance, TimeUnit unit) {
+            this.livenessMode = mode;
+            this.livenessTolerance = unit.toMillis(tolerance);
+            return this;
+        }
+
         /**
          * Creates client instance and registers it.
          * If Luntic was started with heartbeat mode - the specific heartbeat task starts in separate scheduled thread.
@@ -260,20 +971,253 @@ public class Discovery {
          * @return new registered discovery client
          */
         public Discovery register () {
-            ObjectMapper mapper = new ObjectMapper();
-            Api api = Api.connect(url, mapper);
-            Discovery discovery = new Discovery(api, group, meta);
+            Discovery discovery = build();
+            try {
+                MILLISECONDS.sleep(jitter(startupJitter));
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new DiscoveryException("Interrupted before registration", ex);
+            }
             discovery.register();
+            discovery.registration.complete(discovery);
+            discovery.startRefresher(refreshPeriod, maxRefreshPeriod);
+            return discovery;
+        }
+
+        /**
+         * Creates client instance and registers it in background.
+         * <p/>
+         * The method returns immediately, so connecting to Luntic happens in parallel with
+         * application's own startup. Failed attempts are retried with exponential backoff until
+         * registration succeeds or client is deregistered. Lookups, like {@link Discovery#group(String)},
+         * are available right away; methods of client's own instance, like {@link Discovery#me()},
+         * throw {@link DiscoveryException} until {@link Discovery#registration()} completes.
+         *
+         * @return new discovery client with pending registration
+         */
+        public Discovery registerAsync () {
+            Discovery discovery = build();
+            discovery.registerAsync(jitter(startupJitter));
+            discovery.startRefresher(refreshPeriod, maxRefreshPeriod);
+            return discovery;
+        }
+
+        private Discovery build () {
+            TimingListener timings = timingListener();
+
+            // Timeouts are aligned with Feign's default options, otherwise Feign rebuilds the client per request
+            OkHttpClient.Builder httpBuilder = new OkHttpClient.Builder()
+                    .connectTimeout(10, SECONDS)
+                    .readTimeout(60, SECONDS);
+            if (timings != null) {
+                httpBuilder.eventListenerFactory(TimingEventListener.factory(timings));
+            }
+            OkHttpClient base = httpBuilder.build();
+            OkHttpClient readHttp = base.newBuilder()
+                    .addInterceptor(new BulkLane(readConcurrency, MILLISECONDS.toNanos(readMaxWait)))
+                    .addInterceptor(RateLimiter.SHARED)
+                    .build();
+            // own connection pool keeps a connection for heartbeats, even when all others are busy with reads
+            ConnectionPool controlPool = new ConnectionPool(2, 5, MINUTES);
+            // registration waits for the rate limiter like reads do, so registration storms are smoothed
+            OkHttpClient controlHttp = base.newBuilder()
+                    .connectionPool(controlPool)
+                    .addInterceptor(RateLimiter.SHARED)
+                    .build();
+            // a delayed heartbeat could let the instance expire, so heartbeats don't wait for tokens
+            OkHttpClient heartbeatHttp = base.newBuilder()
+                    .connectionPool(controlPool)
+                    .addInterceptor(RateLimiter.SHARED.priority())
+                    .build();
+
+            Codec codec = new Codec(format);
+            HttpUrl httpUrl = HttpUrl.parse(Api.url(url));
+            Api api = api(httpUrl, codec, readHttp, timings);
+            Api controlApi = api(httpUrl, codec, controlHttp, timings);
+            Discovery discovery = new Discovery(api, controlApi, heartbeatHttp, httpUrl, codec, group, meta,
+                                                registrationListener);
+            discovery.heartbeatJitter = heartbeatJitter;
+            if (livenessMode != null) {
+                discovery.liveness = new LivenessFilter(livenessMode, livenessTolerance, discovery::getExpiry);
+            }
+            discovery.bulkFetcher = new BulkFetcher(bulkConcurrency, discovery::instance);
+            discovery.bulkTimeout = bulkTimeout;
+            if (decodingPool != null) {
+                discovery.parallelDecoder = new ParallelDecoder(codec, decodingPool, timings);
+            }
+            if (instanceCacheSize > 0) {
+                discovery.instanceCache = new InstanceCache(instanceCacheSize, instanceCacheHitTtl,
+                                                            instanceCacheMissTtl, api::getByGroupAndId);
+            }
             return discovery;
         }
+
+        private Api api (HttpUrl httpUrl, Codec codec, OkHttpClient http, TimingListener timings) {
+            return directApi
+                   ? new DirectApi(httpUrl, codec, http, timings)
+                   : Api.connect(url, codec, http, timings);
+        }
+
+        private TimingListener timingListener () {
+            if (!flightRecorder || !isFlightRecorderAvailable()) {
+                return timingListener;
+            }
+            ScopedTimingListener recorder = new FlightRecorderTimingListener();
+            if (timingListener == null) {
+                return recorder;
+            }
+            return new CompositeTimingListener(timingListener, recorder);
+        }
+
+        private static boolean isFlightRecorderAvailable () {
+            try {
+                Class.forName("jdk.jfr.Event", false, Discovery.class.getClassLoader());
+                return true;
+            } catch (ClassNotFoundException | LinkageError ex) {
+                return false;
+            }
+        }
     }
 
-    @Value
+    /**
+     * Passes timings to user's listener and to the scoped one, which owns the scopes.
+     */
+    @RequiredArgsConstructor
+    private static final class CompositeTimingListener implements ScopedTimingListener {
+
+        private final TimingListener first;
+
+        private final ScopedTimingListener second;
+
+        @Override
+        public Object requestStarted () {
+            return second.requestStarted();
+        }
+
+        @Override
+        public void requestFinished (Object scope, RequestTiming timing) {
+            first.onRequest(timing);
+            second.requestFinished(scope, timing);
+        }
+
+        @Override
+        public Object decodeStarted () {
+            return second.decodeStarted();
+        }
+
+        @Override
+        public void decodeFinished (Object scope, String type, long durationNanos) {
+            first.onDecode(type, durationNanos);
+            second.decodeFinished(scope, type, durationNanos);
+        }
+    }
+
+    @RequiredArgsConstructor
+    private final class RegistrationTask implements Runnable {
+
+        private final long backoff;
+
+        @Override
+        public void run () {
+            if (registration.isDone()) {
+                return;
+            }
+            try {
+                register();
+            } catch (RuntimeException ex) {
+                if (!registration.isDone()) {
+                    long next = Math.min(backoff * 2, MAX_REGISTRATION_BACKOFF);
+                    // "equal jitter" keeps retries of clients, failed at the same moment, apart
+                    long delay = backoff / 2 + jitter(backoff / 2);
+                    try {
+                        executor().schedule(new RegistrationTask(next), delay, MILLISECONDS);
+                    } catch (RejectedExecutionException rejected) {
+                        // client was deregistered while registration request was in flight
+                    }
+                }
+                return;
+            }
+            if (!registration.complete(Discovery.this)) {
+                // client was deregistered while registration request was in flight
+                deleteLateInstance();
+            }
+        }
+    }
+
+    /**
+     * Supervised heartbeat loop. It never lets an exception cancel future heartbeats:
+     * transient errors are retried with backoff, lost registration (404) is restored
+     * by registering again with current meta data.
+     */
     private final class HeartbeatTask implements Runnable {
 
+        private long period;
+
+        private int failures;
+
+        private boolean lost;
+
+        HeartbeatTask (long period) {
+            this.period = period;
+        }
+
         @Override
         public void run () {
-            api.update(group, id);
+            if (deregistered) {
+                return;
+            }
+            long delay;
+            try {
+                delay = lost
+                        ? reRegister()
+                        : beat();
+            } catch (RuntimeException ex) {
+                failures++;
+                delay = backoff();
+            }
+            if (deregistered) {
+                return;
+            }
+            try {
+                executor().schedule(this, delay, MILLISECONDS);
+            } catch (RejectedExecutionException ex) {
+                // executor was shut down - client is deregistered
+            }
+        }
+
+        private long beat () {
+            int status = heartbeat.beat();
+            if (status == 404) {
+                lost = true;
+                registrationListener.registrationLost(Discovery.this);
+                return reRegister();
+            }
+            if (status >= 400) {
+                failures++;
+                return backoff();
+            }
+            failures = 0;
+            return period;
+        }
+
+        private long reRegister () {
+            long expire = createInstance();
+            if (deregistered) {
+                deleteLateInstance();
+                return period;
+            }
+            lost = false;
+            failures = 0;
+            if (expire > 0) {
+                period = expire;
+            }
+            registrationListener.registrationRestored(Discovery.this);
+            return period;
+        }
+
+        private long backoff () {
+            long backoff = INITIAL_HEARTBEAT_BACKOFF << Math.min(failures - 1, 16);
+            return Math.min(backoff, period);
         }
     }
 }
@@ -0,0 +1,162 @@
+/*
+ * Copyright 2017 Artem Labazin <xxlabaza@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.xxlabaza.luntic.client;
+
+import static jdk.jfr.Timespan.NANOSECONDS;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Publishes timings as Java Flight Recorder events.
+ * <p/>
+ * The class links against {@code jdk.jfr} API, which exists only on JDK 11+ and 8u262+,
+ * so it must be touched only after checking that the API is available. Disabled events cost
+ * a single {@link Event#isEnabled()} call. Events are begun when a request or decoding starts,
+ * so their start time and duration cover the operation itself.
+ *
+ * @author Artem Labazin <xxlabaza@gmail.com>
+ * @since Oct 18, 2026
+ */
+final class FlightRecorderTimingListener implements ScopedTimingListener {
+
+    @Override
+    public Object requestStarted () {
+        RequestEvent event = new RequestEvent();
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.begin();
+        return event;
+    }
+
+    @Override
+    public void requestFinished (Object scope, RequestTiming timing) {
+        if (scope == null) {
+            return;
+        }
+        RequestEvent event = (RequestEvent) scope;
+        event.end();
+        event.method = timing.getMethod();
+        event.url = timing.getUrl();
+        event.status = timing.getStatus();
+        event.failed = timing.isFailed();
+        event.dns = timing.getDnsNanos();
+        event.connect = timing.getConnectNanos();
+        event.secureConnect = timing.getSecureConnectNanos();
+        event.request = timing.getRequestNanos();
+        event.waiting = timing.getWaitNanos();
+        event.response = timing.getResponseNanos();
+        event.total = timing.getTotalNanos();
+        event.responseBytes = timing.getResponseBytes();
+        event.commit();
+    }
+
+    @Override
+    public Object decodeStarted () {
+        DecodeEvent event = new DecodeEvent();
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.begin();
+        return event;
+    }
+
+    @Override
+    public void decodeFinished (Object scope, String type, long durationNanos) {
+        if (scope == null) {
+            return;
+        }
+        DecodeEvent event = (DecodeEvent) scope;
+        event.end();
+        event.type = type;
+        event.decode = durationNanos;
+        event.commit();
+    }
+
+    @Name("com.xxlabaza.luntic.Request")
+    @Label("Luntic Request")
+    @Description("HTTP exchange with Luntic discovery service")
+    @Category("Luntic")
+    @StackTrace(false)
+    static class RequestEvent extends Event {
+
+        @Label("Method")
+        String method;
+
+        @Label("URL")
+        String url;
+
+        @Label("Status")
+        int status;
+
+        @Label("Failed")
+        boolean failed;
+
+        @Label("DNS")
+        @Timespan(NANOSECONDS)
+        long dns;
+
+        @Label("Connect")
+        @Timespan(NANOSECONDS)
+        long connect;
+
+        @Label("Secure Connect")
+        @Timespan(NANOSECONDS)
+        long secureConnect;
+
+        @Label("Request")
+        @Timespan(NANOSECONDS)
+        long request;
+
+        @Label("Wait")
+        @Timespan(NANOSECONDS)
+        long waiting;
+
+        @Label("Response")
+        @Timespan(NANOSECONDS)
+        long response;
+
+        @Label("Total")
+        @Timespan(NANOSECONDS)
+        long total;
+
+        @Label("Response Size")
+        @DataAmount
+        long responseBytes;
+    }
+
+    @Name("com.xxlabaza.luntic.Decode")
+    @Label("Luntic Decode")
+    @Description("Decoding of Luntic response body")
+    @Category("Luntic")
+    @StackTrace(false)
+    static class DecodeEvent extends Event {
+
+        @Label("Type")
+        String type;
+
+        @Label("Decode")
+        @Timespan(NANOSECONDS)
+        long decode;
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2017 Artem Labazin <xxlabaza@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.xxlabaza.luntic.client;
+
+import java.io.IOException;
+import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+
+/**
+ * Cheap heartbeat sender.
+ * <p/>
+ * Unlike {@link Api#update(String, String)} it doesn't expand request template on every call
+ * and never decodes the returned instance - the request is built once per registration
+ * and the response body is discarded unread.
+ *
+ * @author Artem Labazin <xxlabaza@gmail.com>
+ * @since Oct 18, 2026
+ */
+final class Heartbeat {
+
+    private static final RequestBody EMPTY_BODY = RequestBody.create(null, new byte[0]);
+
+    private final OkHttpClient http;
+
+    private final Request request;
+
+    Heartbeat (OkHttpClient http, HttpUrl url, String group, String id) {
+        this.http = http;
+        request = new Request.Builder()
+                .url(url.newBuilder()
+                        .addPathSegment(group)
+                        .addPathSegment(id)
+                        .build())
+                .put(EMPTY_BODY)
+                .build();
+    }
+
+    /**
+     * Sends heartbeat.
+     *
+     * @return response status code
+     */
+    int beat () {
+        try (Response response = http.newCall(request).execute()) {
+            return response.code();
+        } catch (IOException ex) {
+            throw new DiscoveryException("Couldn't send heartbeat. Reason: " + ex.getMessage(), ex);
+        }
+    }
+}
@@ -16,21 +16,26 @@
 
 package com.xxlabaza.luntic.client;
 
+import static com.fasterxml.jackson.core.JsonToken.FIELD_NAME;
+import static com.fasterxml.jackson.core.JsonToken.START_OBJECT;
+import static com.fasterxml.jackson.core.JsonToken.VALUE_NULL;
 import static java.time.format.DateTimeFormatter.ISO_OFFSET_DATE_TIME;
+import static lombok.AccessLevel.PACKAGE;
 
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.core.ObjectCodec;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.DeserializationContext;
 import com.fasterxml.jackson.databind.JsonDeserializer;
-import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.xxlabaza.luntic.client.Instance.Deserializer;
 import java.io.IOException;
 import java.time.ZonedDateTime;
 import java.util.Map;
 import java.util.Optional;
+import java.util.UUID;
 import lombok.Builder;
+import lombok.Getter;
 import lombok.Value;
 
 /**
@@ -40,11 +45,29 @@ import lombok.Value;
  * @since Jul 24, 2017
  */
 @Value
-@Builder
 @JsonDeserialize(using = Deserializer.class)
 public class Instance {
 
-    String id;
+    private static final int UUID_LENGTH = 36;
+
+    /**
+     * Non-UUID id as is, {@code null} if id is stored in two longs below or instance has no id.
+     */
+    @Getter(PACKAGE)
+    String rawId;
+
+    /**
+     * Tells that id is a UUID, stored in two longs below. It also keeps instances without id
+     * apart from instances with zero UUID id.
+     */
+    @Getter(PACKAGE)
+    boolean compactId;
+
+    @Getter(PACKAGE)
+    long idMostSignificantBits;
+
+    @Getter(PACKAGE)
+    long idLeastSignificantBits;
 
     String group;
 
@@ -54,32 +77,147 @@ public class Instance {
 
     Optional<Map<String, Object>> meta;
 
+    @Builder
+    private Instance (String id, String group, ZonedDateTime created, ZonedDateTime modified,
+                      Optional<Map<String, Object>> meta
+    ) {
+        compactId = isCanonicalUuid(id);
+        if (compactId) {
+            rawId = null;
+            idMostSignificantBits = mostSignificantBits(id);
+            idLeastSignificantBits = leastSignificantBits(id);
+        } else {
+            rawId = id;
+            idMostSignificantBits = 0;
+            idLeastSignificantBits = 0;
+        }
+        this.group = group;
+        this.created = created;
+        this.modified = modified;
+        this.meta = meta;
+    }
+
+    /**
+     * Returns instance's id.
+     * UUID-shaped ids are kept in compact binary form and converted back to string on every call.
+     *
+     * @return instance id, {@code null} if instance has no id
+     */
+    public String getId () {
+        return compactId
+               ? new UUID(idMostSignificantBits, idLeastSignificantBits).toString()
+               : rawId;
+    }
+
+    @Override
+    public String toString () {
+        return new StringBuilder("Instance(")
+                .append("id=").append(getId())
+                .append(", group=").append(group)
+                .append(", created=").append(created)
+                .append(", modified=").append(modified)
+                .append(", meta=").append(meta)
+                .append(')')
+                .toString();
+    }
+
+    /**
+     * Checks that id is a lower case UUID string, exactly as {@link UUID#toString()} formats it,
+     * so the compact form converts back to the very same string.
+     */
+    static boolean isCanonicalUuid (String id) {
+        if (id == null || id.length() != UUID_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < UUID_LENGTH; i++) {
+            char symbol = id.charAt(i);
+            if (i == 8 || i == 13 || i == 18 || i == 23) {
+                if (symbol != '-') {
+                    return false;
+                }
+            } else if ((symbol < '0' || symbol > '9') && (symbol < 'a' || symbol > 'f')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static long mostSignificantBits (String uuid) {
+        return parseHex(uuid, 0, 8) << 32 | parseHex(uuid, 9, 13) << 16 | parseHex(uuid, 14, 18);
+    }
+
+    static long leastSignificantBits (String uuid) {
+        return parseHex(uuid, 19, 23) << 48 | parseHex(uuid, 24, 36);
+    }
+
+    private static long parseHex (String string, int from, int to) {
+        long result = 0;
+        for (int i = from; i < to; i++) {
+            result = result << 4 | Character.digit(string.charAt(i), 16);
+        }
+        return result;
+    }
+
     static class Deserializer extends JsonDeserializer<Instance> {
 
+        private static final Interner GROUPS = new Interner(1024);
+
         @Override
         public Instance deserialize (JsonParser parser, DeserializationContext context)
                 throws IOException, JsonProcessingException {
 
-            ObjectCodec codec = parser.getCodec();
-            JsonNode node = codec.readTree(parser);
-
-            InstanceBuilder builder = Instance.builder()
-                    .id(node.get("id").asText())
-                    .group(node.get("group").asText())
-                    .created(ZonedDateTime.parse(node.get("created").asText(), ISO_OFFSET_DATE_TIME))
-                    .modified(ZonedDateTime.parse(node.get("modified").asText(), ISO_OFFSET_DATE_TIME));
-
-            Optional<Map<String, Object>> optional;
-            if (node.hasNonNull("meta")) {
-                Map<String, Object> meta = codec.treeToValue(node.get("meta"), Map.class);
-                optional = Optional.ofNullable(meta);
-            } else {
-                optional = Optional.empty();
-            }
-            builder.meta(optional);
-
+            InstanceBuilder builder = Instance.builder();
+            // meta keys are field names, which Jackson already canonicalizes in its symbol tables
+            Map<String, Object> meta = readFields(parser, builder, it -> context.readValue(it, Map.class));
+            builder.meta(Optional.ofNullable(meta));
             return builder.build();
         }
 
+        /**
+         * Reads instance's object into the builder, except meta data, which is read by the specified reader.
+         *
+         * @return meta data or {@code null} if there is no meta data
+         */
+        static <M> M readFields (JsonParser parser, InstanceBuilder builder, MetaReader<M> metaReader)
+                throws IOException {
+
+            M meta = null;
+            JsonToken token = parser.getCurrentToken();
+            if (token == START_OBJECT) {
+                token = parser.nextToken();
+            }
+            for (; token == FIELD_NAME; token = parser.nextToken()) {
+                String name = parser.getCurrentName();
+                token = parser.nextToken();
+                switch (name) {
+                case "id":
+                    builder.id(parser.getValueAsString());
+                    break;
+                case "group":
+                    builder.group(GROUPS.intern(parser.getValueAsString()));
+                    break;
+                case "created":
+                    builder.created(ZonedDateTime.parse(parser.getValueAsString(), ISO_OFFSET_DATE_TIME));
+                    break;
+                case "modified":
+                    builder.modified(ZonedDateTime.parse(parser.getValueAsString(), ISO_OFFSET_DATE_TIME));
+                    break;
+                case "meta":
+                    if (token != VALUE_NULL) {
+                        meta = metaReader.read(parser);
+                    }
+                    break;
+                default:
+                    parser.skipChildren();
+                }
+            }
+            return meta;
+        }
+    }
+
+    @FunctionalInterface
+    interface MetaReader<M> {
+
+        M read (JsonParser parser) throws IOException;
     }
 }
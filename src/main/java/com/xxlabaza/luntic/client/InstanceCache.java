@@ -0,0 +1,124 @@
+/*
+ * Copyright 2017 Artem Labazin <xxlabaza@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.xxlabaza.luntic.client;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.BiFunction;
+import lombok.Value;
+
+/**
+ * Size-bounded cache of {@code GET /{group}/{id}} lookups.
+ * <p/>
+ * Admission and eviction are done by Caffeine's W-TinyLFU policy. Unknown instances
+ * are cached as negative entries, with their own (usually shorter) time to live,
+ * so repeated lookups of missing ids don't reach Luntic either.
+ * <p/>
+ * Missing entries are loaded by the calling thread outside of any lock. Caffeine's synchronous
+ * loading runs inside {@code ConcurrentHashMap.compute}, which holds a monitor during the whole
+ * HTTP request and pins virtual threads. Here the map only gets a pending future, so concurrent
+ * lookups of the same key still wait for one request, but they wait on the future.
+ *
+ * @author Artem Labazin <xxlabaza@gmail.com>
+ * @since Oct 18, 2026
+ */
+final class InstanceCache {
+
+    private final AsyncCache<Key, Optional<Instance>> cache;
+
+    private final BiFunction<String, String, Instance> loader;
+
+    InstanceCache (long maximumSize, Duration hitTtl, Duration missTtl, BiFunction<String, String, Instance> loader) {
+        cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new HitMissExpiry(hitTtl.toNanos(), missTtl.toNanos()))
+                .buildAsync();
+        this.loader = loader;
+    }
+
+    Instance get (String group, String id) {
+        Key key = new Key(group, id);
+        CompletableFuture<Optional<Instance>> future = cache.getIfPresent(key);
+        if (future == null) {
+            CompletableFuture<Optional<Instance>> loading = new CompletableFuture<>();
+            future = cache.asMap().putIfAbsent(key, loading);
+            if (future == null) {
+                future = loading;
+                try {
+                    loading.complete(Optional.ofNullable(loader.apply(group, id)));
+                } catch (RuntimeException ex) {
+                    // failed futures are removed by the cache, so the next lookup retries
+                    loading.completeExceptionally(ex);
+                }
+            }
+        }
+        try {
+            return future.join().orElse(null);
+        } catch (CompletionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw ex;
+        }
+    }
+
+    void invalidate (String group, String id) {
+        cache.synchronous().invalidate(new Key(group, id));
+    }
+
+    void invalidateAll () {
+        cache.synchronous().invalidateAll();
+    }
+
+    @Value
+    private static class Key {
+
+        String group;
+
+        String id;
+    }
+
+    @Value
+    private static class HitMissExpiry implements Expiry<Key, Optional<Instance>> {
+
+        long hitNanos;
+
+        long missNanos;
+
+        @Override
+        public long expireAfterCreate (Key key, Optional<Instance> value, long currentTime) {
+            return value.isPresent()
+                   ? hitNanos
+                   : missNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate (Key key, Optional<Instance> value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead (Key key, Optional<Instance> value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
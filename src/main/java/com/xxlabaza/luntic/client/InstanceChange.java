@@ -0,0 +1,88 @@
+/*
+ * Copyright 2017 Artem Labazin <xxlabaza@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.xxlabaza.luntic.client;
+
+import lombok.Value;
+
+/**
+ * Change of a single instance between two {@link RegistrySnapshot}s.
+ *
+ * @author Artem Labazin <xxlabaza@gmail.com>
+ * @since Oct 18, 2026
+ */
+@Value
+public class InstanceChange {
+
+    Type type;
+
+    /**
+     * Instance from previous snapshot, {@code null} for {@link Type#ADDED} changes.
+     */
+    Instance previous;
+
+    /**
+     * Instance from current snapshot, {@code null} for {@link Type#REMOVED} changes.
+     */
+    Instance current;
+
+    /**
+     * Returns changed instance's group.
+     *
+     * @return group name
+     */
+    public String getGroup () {
+        return current != null
+               ? current.getGroup()
+               : previous.getGroup();
+    }
+
+    /**
+     * Returns changed instance's id.
+     *
+     * @return instance id
+     */
+    public String getId () {
+        return current != null
+               ? current.getId()
+               : previous.getId();
+    }
+
+    /**
+     * Kinds of instance changes.
+     */
+    public enum Type {
+
+        /**
+         * Instance appeared in registry.
+         */
+        ADDED,
+
+        /**
+         * Instance disappeared from registry.
+         */
+        REMOVED,
+
+        /**
+         * Instance's meta data or creation time changed.
+         */
+        UPDATED,
+
+        /**
+         * Only instance's last modified time changed, usually because of a heartbeat.
+         */
+        TOUCHED
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2017 Artem Labazin <xxlabaza@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.xxlabaza.luntic.client;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Bounded pool of canonical strings.
+ * <p/>
+ * Once the pool is full, new strings are returned as is, so a registry with
+ * unexpectedly many distinct values can't turn the pool into a memory leak.
+ *
+ * @author Artem Labazin <xxlabaza@gmail.com>
+ * @since Oct 18, 2026
+ */
+final class Interner {
+
+    private final int capacity;
+
+    private final ConcurrentMap<String, String> pool;
+
+    Interner (int capacity) {
+        this.capacity = capacity;
+        pool = new ConcurrentHashMap<>();
+    }
+
+    String intern (String value) {
+        if (value == null) {
+            return null;
+        }
+        String canonical = pool.get(value);
+        if (canonical != null) {
+            return canonical;
+        }
+        if (pool.size() >= capacity) {
+            return value;
+        }
+        canonical = pool.putIfAbsent(value, value);
+        return canonical != null
+               ? canonical
+               : value;
+    }
+}
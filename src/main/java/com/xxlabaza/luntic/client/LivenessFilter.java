@@ -0,0 +1,137 @@
+/*
+ * Copyright 2017 Artem Labazin <xxlabaza@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.xxlabaza.luntic.client;
+
+import static com.xxlabaza.luntic.client.LivenessMode.DROP;
+
+import java.time.Clock;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.function.LongSupplier;
+
+/**
+ * Filter of instances, which last heartbeat is older than Luntic's expiration time.
+ * <p/>
+ * Luntic removes expired instances only when its cleaner runs, so between the runs it still
+ * returns dead instances. The filter drops or deprioritizes them on the client side.
+ * Results without stale instances are returned as is, without copying.
+ *
+ * @author Artem Labazin <xxlabaza@gmail.com>
+ * @since Oct 18, 2026
+ */
+final class LivenessFilter {
+
+    private final LivenessMode mode;
+
+    private final long tolerance;
+
+    private final LongSupplier expiry;
+
+    private final Clock clock;
+
+    LivenessFilter (LivenessMode mode, long tolerance, LongSupplier expiry) {
+        this(mode, tolerance, expiry, Clock.systemUTC());
+    }
+
+    LivenessFilter (LivenessMode mode, long tolerance, LongSupplier expiry, Clock clock) {
+        this.mode = mode;
+        this.tolerance = tolerance;
+        this.expiry = expiry;
+        this.clock = clock;
+    }
+
+    List<Instance> apply (List<Instance> instances) {
+        long deadline = deadline();
+        return deadline != Long.MIN_VALUE && instances != null
+               ? filter(instances, deadline)
+               : instances;
+    }
+
+    Map<String, List<Instance>> apply (Map<String, List<Instance>> registry) {
+        long deadline = deadline();
+        if (deadline == Long.MIN_VALUE || registry == null) {
+            return registry;
+        }
+        Map<String, List<Instance>> result = new LinkedHashMap<>(registry.size() * 4 / 3 + 1);
+        boolean changed = false;
+        for (Entry<String, List<Instance>> entry : registry.entrySet()) {
+            List<Instance> instances = entry.getValue();
+            List<Instance> filtered = instances != null
+                                      ? filter(instances, deadline)
+                                      : null;
+            if (filtered != instances) {
+                changed = true;
+                if (filtered.isEmpty()) {
+                    // getAll doesn't return empty groups either
+                    continue;
+                }
+            }
+            result.put(entry.getKey(), filtered);
+        }
+        return changed
+               ? result
+               : registry;
+    }
+
+    /**
+     * Returns the oldest acceptable last modified time in epoch milliseconds,
+     * or {@link Long#MIN_VALUE} if expiration time is unknown.
+     */
+    private long deadline () {
+        long expire = expiry.getAsLong();
+        return expire > 0
+               ? clock.millis() - expire - tolerance
+               : Long.MIN_VALUE;
+    }
+
+    private List<Instance> filter (List<Instance> instances, long deadline) {
+        int firstStale = -1;
+        for (int i = 0; i < instances.size(); i++) {
+            if (isStale(instances.get(i), deadline)) {
+                firstStale = i;
+                break;
+            }
+        }
+        if (firstStale < 0) {
+            return instances;
+        }
+        List<Instance> alive = new ArrayList<>(instances.size());
+        List<Instance> stale = new ArrayList<>();
+        alive.addAll(instances.subList(0, firstStale));
+        for (int i = firstStale; i < instances.size(); i++) {
+            Instance instance = instances.get(i);
+            if (isStale(instance, deadline)) {
+                stale.add(instance);
+            } else {
+                alive.add(instance);
+            }
+        }
+        if (mode != DROP) {
+            alive.addAll(stale);
+        }
+        return alive;
+    }
+
+    private static boolean isStale (Instance instance, long deadline) {
+        ZonedDateTime modified = instance.getModified();
+        return modified != null && modified.toInstant().toEpochMilli() < deadline;
+    }
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2017 Artem Labazin <xxlabaza@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.xxlabaza.luntic.client;
+
+/**
+ * Handling of stale instances, which missed their heartbeats, but are still returned by Luntic.
+ *
+ * @author Artem Labazin <xxlabaza@gmail.com>
+ * @since Oct 18, 2026
+ */
+public enum LivenessMode {
+
+    /**
+     * Stale instances are removed from results.
+     */
+    DROP,
+
+    /**
+     * Stale instances are moved to the end of their groups, after all alive ones.
+     * It keeps a fallback, if clock skew turns out to be larger than expected.
+     */
+    DEPRIORITIZE
+}
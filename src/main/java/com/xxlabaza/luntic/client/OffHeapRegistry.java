@@ -0,0 +1,613 @@
+/*
+ * Copyright 2017 Artem Labazin <xxlabaza@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.xxlabaza.luntic.client;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Collections.unmodifiableSet;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Immutable registry view, which keeps instances outside of Java heap.
+ * <p/>
+ * Instances are packed into direct {@link ByteBuffer} slabs, the id index is an open addressing
+ * hash table in a direct buffer too. The heap holds only a few objects per group, so its footprint
+ * and GC work don't depend on registry size. Instances are read through reusable {@link InstanceView}
+ * flyweights, which decode fields on access.
+ * <p/>
+ * Record layout:
+ * <pre>
+ * long  address of the next record of the same group, -1 for the last one
+ * int   id hash
+ * int   group index
+ * byte  id kind: 0 - UUID, 1 - raw string
+ * ...   id: two longs for UUID, int length (-1 if there is no id) and UTF-8 bytes for raw string
+ * 16b   created: long epoch second, int nanos, int offset seconds
+ * 16b   modified, the same as created
+ * int   meta length, -1 if there is no meta data
+ * ...   meta data as JSON
+ * </pre>
+ * Record address is {@code slabIndex << 32 | offset}.
+ * Time zones are stored as offsets, the way Luntic sends them.
+ * <p/>
+ * The registry can be read from any number of threads, views are not thread safe.
+ * Off-heap memory is released when the registry becomes unreachable and is garbage collected.
+ *
+ * @author Artem Labazin <xxlabaza@gmail.com>
+ * @since Oct 18, 2026
+ */
+public final class OffHeapRegistry {
+
+    static final int DEFAULT_SLAB_SIZE = 1 << 20;
+
+    private static final ObjectMapper META_MAPPER = new ObjectMapper();
+
+    private static final long NONE = -1L;
+
+    private static final long NULL_TIME = Long.MIN_VALUE;
+
+    private static final byte UUID_ID = 0;
+
+    private static final byte RAW_ID = 1;
+
+    private static final int NEXT = 0;
+
+    private static final int HASH = 8;
+
+    private static final int GROUP = 12;
+
+    private static final int ID_KIND = 16;
+
+    private static final int ID = 17;
+
+    private static final int TIME_SIZE = 16;
+
+    private final ByteBuffer[] slabs;
+
+    private final String[] groupNames;
+
+    private final Map<String, Integer> groupIndexes;
+
+    private final long[] groupHeads;
+
+    private final int[] groupCounts;
+
+    private final ByteBuffer index;
+
+    private final int indexMask;
+
+    private final int size;
+
+    static Builder builder () {
+        return new Builder(DEFAULT_SLAB_SIZE);
+    }
+
+    private OffHeapRegistry (Builder builder) {
+        slabs = builder.slabs.toArray(new ByteBuffer[0]);
+        groupNames = builder.groupNames.toArray(new String[0]);
+        groupIndexes = builder.groupIndexes;
+        groupHeads = Arrays.copyOf(builder.heads, groupNames.length);
+        groupCounts = Arrays.copyOf(builder.counts, groupNames.length);
+        size = builder.size;
+
+        int capacity = Integer.highestOneBit(Math.max(size, 1) * 2 - 1) << 1;
+        index = ByteBuffer.allocateDirect(capacity * Long.BYTES);
+        indexMask = capacity - 1;
+        for (long head : groupHeads) {
+            for (long address = head; address != NONE; address = slab(address).getLong(offset(address) + NEXT)) {
+                int slot = slab(address).getInt(offset(address) + HASH) & indexMask;
+                while (index.getLong(slot * Long.BYTES) != 0) {
+                    slot = (slot + 1) & indexMask;
+                }
+                // zero marks empty slots, so addresses are shifted by one
+                index.putLong(slot * Long.BYTES, address + 1);
+            }
+        }
+    }
+
+    /**
+     * Returns total number of instances.
+     *
+     * @return number of instances
+     */
+    public int size () {
+        return size;
+    }
+
+    /**
+     * Returns names of all groups.
+     *
+     * @return unmodifiable set of group names
+     */
+    public Set<String> groups () {
+        return unmodifiableSet(new LinkedHashSet<>(Arrays.asList(groupNames)));
+    }
+
+    /**
+     * Returns number of instances in the group.
+     *
+     * @param group group name
+     *
+     * @return number of instances, {@code 0} if there is no such group
+     */
+    public int count (String group) {
+        Integer groupIndex = groupIndexes.get(group);
+        return groupIndex != null
+               ? groupCounts[groupIndex]
+               : 0;
+    }
+
+    /**
+     * Returns amount of off-heap memory, occupied by the registry.
+     *
+     * @return number of bytes
+     */
+    public long offHeapBytes () {
+        long result = index.capacity();
+        for (ByteBuffer slab : slabs) {
+            result += slab.capacity();
+        }
+        return result;
+    }
+
+    /**
+     * Creates new reusable view, which is not positioned at any instance yet.
+     *
+     * @return new view
+     */
+    public InstanceView view () {
+        return new InstanceView(this);
+    }
+
+    /**
+     * Positions the view at instance with specified group and id.
+     *
+     * @param group requested instance group name
+     * @param id    requested instance id
+     * @param view  view for positioning
+     *
+     * @return {@code true} if instance is found, otherwise view stays unchanged
+     */
+    public boolean find (String group, String id, InstanceView view) {
+        Integer groupIndex = groupIndexes.get(group);
+        if (groupIndex == null || id == null) {
+            return false;
+        }
+        boolean uuid = Instance.isCanonicalUuid(id);
+        long most = uuid
+                    ? Instance.mostSignificantBits(id)
+                    : 0;
+        long least = uuid
+                     ? Instance.leastSignificantBits(id)
+                     : 0;
+        byte[] raw = uuid
+                     ? null
+                     : id.getBytes(UTF_8);
+        int hash = uuid
+                   ? hash(groupIndex, most, least)
+                   : hash(groupIndex, id);
+
+        for (int slot = hash & indexMask;; slot = (slot + 1) & indexMask) {
+            long entry = index.getLong(slot * Long.BYTES);
+            if (entry == 0) {
+                return false;
+            }
+            long address = entry - 1;
+            ByteBuffer slab = slab(address);
+            int offset = offset(address);
+            if (slab.getInt(offset + HASH) != hash || slab.getInt(offset + GROUP) != groupIndex) {
+                continue;
+            }
+            boolean equal = uuid
+                            ? slab.get(offset + ID_KIND) == UUID_ID
+                              && slab.getLong(offset + ID) == most
+                              && slab.getLong(offset + ID + Long.BYTES) == least
+                            : slab.get(offset + ID_KIND) == RAW_ID && equalBytes(slab, offset + ID, raw);
+            if (equal) {
+                view.move(slab, offset);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Passes every instance of the group to the consumer. The consumer receives the same view,
+     * positioned at the next instance on every call, so the view must not be kept.
+     *
+     * @param group    group name
+     * @param consumer instances consumer
+     */
+    public void forEach (String group, Consumer<? super InstanceView> consumer) {
+        Integer groupIndex = groupIndexes.get(group);
+        if (groupIndex != null) {
+            forEach(groupIndex, new InstanceView(this), consumer);
+        }
+    }
+
+    /**
+     * Passes every instance of the registry to the consumer. The consumer receives the same view,
+     * positioned at the next instance on every call, so the view must not be kept.
+     *
+     * @param consumer instances consumer
+     */
+    public void forEach (Consumer<? super InstanceView> consumer) {
+        InstanceView view = new InstanceView(this);
+        for (int i = 0; i < groupHeads.length; i++) {
+            forEach(i, view, consumer);
+        }
+    }
+
+    @Override
+    public String toString () {
+        return "OffHeapRegistry(groups=" + groupNames.length + ", size=" + size
+               + ", offHeapBytes=" + offHeapBytes() + ')';
+    }
+
+    String groupName (int groupIndex) {
+        return groupNames[groupIndex];
+    }
+
+    private void forEach (int groupIndex, InstanceView view, Consumer<? super InstanceView> consumer) {
+        for (long address = groupHeads[groupIndex]; address != NONE;) {
+            ByteBuffer slab = slab(address);
+            int offset = offset(address);
+            view.move(slab, offset);
+            consumer.accept(view);
+            address = slab.getLong(offset + NEXT);
+        }
+    }
+
+    private ByteBuffer slab (long address) {
+        return slabs[(int) (address >>> 32)];
+    }
+
+    private static int offset (long address) {
+        return (int) address;
+    }
+
+    private static boolean equalBytes (ByteBuffer slab, int offset, byte[] bytes) {
+        if (slab.getInt(offset) != bytes.length) {
+            return false;
+        }
+        for (int i = 0; i < bytes.length; i++) {
+            if (slab.get(offset + Integer.BYTES + i) != bytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static byte[] bytes (ByteBuffer slab, int offset, int length) {
+        byte[] result = new byte[length];
+        ByteBuffer duplicate = slab.duplicate();
+        duplicate.position(offset);
+        duplicate.get(result);
+        return result;
+    }
+
+    private static int hash (int groupIndex, long most, long least) {
+        return mix(groupIndex, Long.hashCode(most ^ least));
+    }
+
+    private static int hash (int groupIndex, String rawId) {
+        return mix(groupIndex, rawId.hashCode());
+    }
+
+    private static int mix (int groupIndex, int idHash) {
+        int hash = groupIndex * 0x9E3779B9 + idHash;
+        hash ^= hash >>> 16;
+        hash *= 0x85EBCA6B;
+        return hash ^ hash >>> 13;
+    }
+
+    /**
+     * Flyweight view of an instance in {@link OffHeapRegistry}.
+     * <p/>
+     * Every getter decodes its field from off-heap memory, so the view itself holds only a position.
+     */
+    public static final class InstanceView {
+
+        private final OffHeapRegistry registry;
+
+        private ByteBuffer slab;
+
+        private int offset;
+
+        InstanceView (OffHeapRegistry registry) {
+            this.registry = registry;
+        }
+
+        /**
+         * Returns instance's id.
+         *
+         * @return instance id
+         */
+        public String getId () {
+            requirePosition();
+            if (slab.get(offset + ID_KIND) == UUID_ID) {
+                return new UUID(slab.getLong(offset + ID), slab.getLong(offset + ID + Long.BYTES)).toString();
+            }
+            int length = slab.getInt(offset + ID);
+            if (length < 0) {
+                return null;
+            }
+            return new String(bytes(slab, offset + ID + Integer.BYTES, length), UTF_8);
+        }
+
+        /**
+         * Returns instance's group name, the same string object for all instances of the group.
+         *
+         * @return group name
+         */
+        public String getGroup () {
+            requirePosition();
+            return registry.groupName(slab.getInt(offset + GROUP));
+        }
+
+        /**
+         * Returns instance's creation time.
+         *
+         * @return creation time
+         */
+        public ZonedDateTime getCreated () {
+            requirePosition();
+            return readTime(idEnd());
+        }
+
+        /**
+         * Returns instance's last modification time.
+         *
+         * @return last modification time
+         */
+        public ZonedDateTime getModified () {
+            requirePosition();
+            return readTime(idEnd() + TIME_SIZE);
+        }
+
+        /**
+         * Decodes instance's meta data.
+         *
+         * @return meta data
+         */
+        @SuppressWarnings("unchecked")
+        public Optional<Map<String, Object>> getMeta () {
+            requirePosition();
+            int metaOffset = idEnd() + 2 * TIME_SIZE;
+            int length = slab.getInt(metaOffset);
+            if (length < 0) {
+                return Optional.empty();
+            }
+            try {
+                return Optional.of(META_MAPPER.readValue(bytes(slab, metaOffset + Integer.BYTES, length), Map.class));
+            } catch (IOException ex) {
+                throw new DiscoveryException("Couldn't decode instance meta data", ex);
+            }
+        }
+
+        /**
+         * Copies viewed instance to heap.
+         *
+         * @return regular instance object
+         */
+        public Instance toInstance () {
+            return Instance.builder()
+                    .id(getId())
+                    .group(getGroup())
+                    .created(getCreated())
+                    .modified(getModified())
+                    .meta(getMeta())
+                    .build();
+        }
+
+        @Override
+        public String toString () {
+            return slab != null
+                   ? "InstanceView(" + toInstance() + ')'
+                   : "InstanceView()";
+        }
+
+        void move (ByteBuffer slab, int offset) {
+            this.slab = slab;
+            this.offset = offset;
+        }
+
+        private void requirePosition () {
+            if (slab == null) {
+                throw new IllegalStateException("View isn't positioned at any instance");
+            }
+        }
+
+        private int idEnd () {
+            return slab.get(offset + ID_KIND) == UUID_ID
+                   ? offset + ID + 2 * Long.BYTES
+                   : offset + ID + Integer.BYTES + Math.max(slab.getInt(offset + ID), 0);
+        }
+
+        private ZonedDateTime readTime (int timeOffset) {
+            long seconds = slab.getLong(timeOffset);
+            if (seconds == NULL_TIME) {
+                return null;
+            }
+            Instant instant = Instant.ofEpochSecond(seconds, slab.getInt(timeOffset + Long.BYTES));
+            ZoneOffset zone = ZoneOffset.ofTotalSeconds(slab.getInt(timeOffset + Long.BYTES + Integer.BYTES));
+            return ZonedDateTime.ofInstant(instant, zone);
+        }
+    }
+
+    /**
+     * Appends instances to slabs. It is used once and then discarded.
+     */
+    static final class Builder {
+
+        private final int slabSize;
+
+        private final List<ByteBuffer> slabs;
+
+        private final List<String> groupNames;
+
+        private final Map<String, Integer> groupIndexes;
+
+        private long[] heads;
+
+        private long[] tails;
+
+        private int[] counts;
+
+        private ByteBuffer current;
+
+        private int size;
+
+        Builder (int slabSize) {
+            this.slabSize = slabSize;
+            slabs = new ArrayList<>();
+            groupNames = new ArrayList<>();
+            groupIndexes = new HashMap<>();
+            heads = new long[16];
+            tails = new long[16];
+            counts = new int[16];
+        }
+
+        void add (Instance instance) {
+            boolean compactId = instance.isCompactId();
+            byte[] rawId = instance.getRawId() != null
+                           ? instance.getRawId().getBytes(UTF_8)
+                           : null;
+            Optional<Map<String, Object>> optional = instance.getMeta();
+            byte[] meta = optional != null && optional.isPresent()
+                          ? encode(optional.get())
+                          : null;
+            int length = ID
+                         + (compactId
+                            ? 2 * Long.BYTES
+                            : Integer.BYTES + (rawId != null
+                                               ? rawId.length
+                                               : 0))
+                         + 2 * TIME_SIZE
+                         + Integer.BYTES + (meta != null
+                                            ? meta.length
+                                            : 0);
+
+            int groupIndex = groupIndex(instance.getGroup());
+            ByteBuffer slab = reserve(length);
+            int offset = slab.position();
+            long address = (long) (slabs.size() - 1) << 32 | offset;
+
+            slab.putLong(NONE);
+            if (compactId) {
+                long most = instance.getIdMostSignificantBits();
+                long least = instance.getIdLeastSignificantBits();
+                slab.putInt(hash(groupIndex, most, least))
+                        .putInt(groupIndex)
+                        .put(UUID_ID)
+                        .putLong(most)
+                        .putLong(least);
+            } else if (rawId != null) {
+                slab.putInt(hash(groupIndex, instance.getRawId()))
+                        .putInt(groupIndex)
+                        .put(RAW_ID)
+                        .putInt(rawId.length)
+                        .put(rawId);
+            } else {
+                slab.putInt(mix(groupIndex, 0))
+                        .putInt(groupIndex)
+                        .put(RAW_ID)
+                        .putInt(-1);
+            }
+            putTime(slab, instance.getCreated());
+            putTime(slab, instance.getModified());
+            if (meta != null) {
+                slab.putInt(meta.length).put(meta);
+            } else {
+                slab.putInt(-1);
+            }
+
+            if (tails[groupIndex] == NONE) {
+                heads[groupIndex] = address;
+            } else {
+                long tail = tails[groupIndex];
+                slabs.get((int) (tail >>> 32)).putLong(offset(tail) + NEXT, address);
+            }
+            tails[groupIndex] = address;
+            counts[groupIndex]++;
+            size++;
+        }
+
+        OffHeapRegistry build () {
+            return new OffHeapRegistry(this);
+        }
+
+        private int groupIndex (String group) {
+            Integer existing = groupIndexes.get(group);
+            if (existing != null) {
+                return existing;
+            }
+            int groupIndex = groupNames.size();
+            if (groupIndex == heads.length) {
+                heads = Arrays.copyOf(heads, groupIndex * 2);
+                tails = Arrays.copyOf(tails, groupIndex * 2);
+                counts = Arrays.copyOf(counts, groupIndex * 2);
+            }
+            heads[groupIndex] = NONE;
+            tails[groupIndex] = NONE;
+            groupNames.add(group);
+            groupIndexes.put(group, groupIndex);
+            return groupIndex;
+        }
+
+        private ByteBuffer reserve (int length) {
+            if (current == null || current.remaining() < length) {
+                current = ByteBuffer.allocateDirect(Math.max(slabSize, length));
+                slabs.add(current);
+            }
+            return current;
+        }
+
+        private static byte[] encode (Map<String, Object> meta) {
+            try {
+                return META_MAPPER.writeValueAsBytes(meta);
+            } catch (JsonProcessingException ex) {
+                throw new DiscoveryException("Couldn't encode instance meta data", ex);
+            }
+        }
+
+        private static void putTime (ByteBuffer slab, ZonedDateTime time) {
+            if (time == null) {
+                slab.putLong(NULL_TIME).putInt(0).putInt(0);
+                return;
+            }
+            slab.putLong(time.toEpochSecond())
+                    .putInt(time.getNano())
+                    .putInt(time.getOffset().getTotalSeconds());
+        }
+    }
+}
@@ -0,0 +1,347 @@
+/*
+ * Copyright 2017 Artem Labazin <xxlabaza@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.xxlabaza.luntic.client;
+
+import static com.xxlabaza.luntic.client.InstanceChange.Type.REMOVED;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Ejects instances, which fail or are slow from callers' point of view, from selection.
+ * <p/>
+ * Callers report outcome and latency of every request to an instance. The detector keeps
+ * lock-free sliding window statistics per instance and ejects it when its failure rate or
+ * average latency exceeds the thresholds. An ejected instance is unavailable for the ejection
+ * time, which doubles with every next ejection up to the maximum, and then is let back in
+ * gradually: the chance to be available grows linearly during the recovery period.
+ * <p/>
+ * Typical usage is {@code ZoneAwareRouter.builder().available(detector::isAvailable)}.
+ * The detector is also a {@link RegistryListener}, which forgets statistics of removed instances.
+ * Window counters are updated without locks, so they are approximate under heavy contention.
+ * Statistics are keyed by instance ids in their compact form, so the per-request checks
+ * don't format UUID strings, and they survive heartbeats, which change modification time.
+ *
+ * @author Artem Labazin <xxlabaza@gmail.com>
+ * @since Oct 18, 2026
+ */
+public final class OutlierDetector implements RegistryListener {
+
+    static final int BUCKETS = 10;
+
+    private final long windowNanos;
+
+    private final int minimumRequests;
+
+    private final double failureRateThreshold;
+
+    private final long slowCallNanos;
+
+    private final long baseEjectionNanos;
+
+    private final long maxEjectionNanos;
+
+    private final long recoveryNanos;
+
+    private final LongSupplier clock;
+
+    private final long origin;
+
+    private final ConcurrentMap<String, ConcurrentMap<Key, Stats>> groups;
+
+    /**
+     * Creates new detector.
+     *
+     * @param window               statistics sliding window, default - 10 seconds
+     * @param minimumRequests      minimum number of requests in the window for ejection, default - 20
+     * @param failureRateThreshold failure rate, which causes ejection, default - 0.5
+     * @param slowCallThreshold    average latency, which causes ejection, optional
+     * @param baseEjection         first ejection time, default - 30 seconds
+     * @param maxEjection          maximum ejection time, default - 5 minutes
+     * @param recovery             gradual recovery period after ejection, default - the base ejection time
+     */
+    @Builder
+    private OutlierDetector (Duration window, Integer minimumRequests, Double failureRateThreshold,
+                             Duration slowCallThreshold, Duration baseEjection, Duration maxEjection,
+                             Duration recovery
+    ) {
+        this(window, minimumRequests, failureRateThreshold, slowCallThreshold, baseEjection, maxEjection,
+             recovery, System::nanoTime);
+    }
+
+    OutlierDetector (Duration window, Integer minimumRequests, Double failureRateThreshold,
+                     Duration slowCallThreshold, Duration baseEjection, Duration maxEjection,
+                     Duration recovery, LongSupplier clock
+    ) {
+        this.windowNanos = nanos(window, Duration.ofSeconds(10));
+        this.minimumRequests = minimumRequests != null
+                               ? minimumRequests
+                               : 20;
+        this.failureRateThreshold = failureRateThreshold != null
+                                    ? failureRateThreshold
+                                    : 0.5D;
+        this.slowCallNanos = slowCallThreshold != null
+                             ? slowCallThreshold.toNanos()
+                             : Long.MAX_VALUE;
+        this.baseEjectionNanos = nanos(baseEjection, Duration.ofSeconds(30));
+        this.maxEjectionNanos = Math.max(nanos(maxEjection, Duration.ofMinutes(5)), baseEjectionNanos);
+        this.recoveryNanos = Math.max(nanos(recovery, Duration.ofNanos(baseEjectionNanos)), 1);
+        this.clock = clock;
+        origin = clock.getAsLong();
+        groups = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Reports successful request.
+     *
+     * @param instance     requested instance
+     * @param latencyNanos request latency in nanoseconds
+     */
+    public void success (Instance instance, long latencyNanos) {
+        report(instance, true, latencyNanos);
+    }
+
+    /**
+     * Reports failed request.
+     *
+     * @param instance     requested instance
+     * @param latencyNanos request latency in nanoseconds
+     */
+    public void failure (Instance instance, long latencyNanos) {
+        report(instance, false, latencyNanos);
+    }
+
+    /**
+     * Tells whether the instance can be selected. Instances without reports are always available,
+     * recovering ones are available with growing probability.
+     *
+     * @param instance instance for checking
+     *
+     * @return {@code false} if instance is ejected
+     */
+    public boolean isAvailable (Instance instance) {
+        Stats stats = find(instance);
+        if (stats == null) {
+            return true;
+        }
+        long until = stats.ejectedUntil.get();
+        if (until == 0) {
+            return true;
+        }
+        long now = now();
+        if (now < until) {
+            return false;
+        }
+        long recovered = now - until;
+        return recovered >= recoveryNanos
+               || ThreadLocalRandom.current().nextLong(recoveryNanos) < recovered;
+    }
+
+    /**
+     * Tells whether the instance is ejected right now, not counting recovery period.
+     *
+     * @param instance instance for checking
+     *
+     * @return {@code true} if instance is ejected
+     */
+    public boolean isEjected (Instance instance) {
+        Stats stats = find(instance);
+        return stats != null && now() < stats.ejectedUntil.get();
+    }
+
+    /**
+     * Drops statistics of the instance.
+     *
+     * @param instance forgotten instance
+     */
+    public void forget (Instance instance) {
+        Map<Key, Stats> ids = groups.get(instance.getGroup());
+        if (ids != null) {
+            ids.remove(Key.of(instance));
+        }
+    }
+
+    @Override
+    public void onChanges (RegistrySnapshot previous, RegistrySnapshot current, List<InstanceChange> changes) {
+        changes.stream()
+                .filter(it -> it.getType() == REMOVED)
+                .forEach(it -> forget(it.getPrevious()));
+    }
+
+    private void report (Instance instance, boolean success, long latencyNanos) {
+        Stats stats = groups.computeIfAbsent(instance.getGroup(), it -> new ConcurrentHashMap<>())
+                .computeIfAbsent(Key.of(instance), it -> new Stats(windowNanos / BUCKETS));
+
+        long now = now();
+        stats.window.record(now, success, latencyNanos);
+        if (success && latencyNanos < slowCallNanos) {
+            return;
+        }
+
+        long[] totals = stats.window.totals(now);
+        long requests = totals[0] + totals[1];
+        if (requests < minimumRequests) {
+            return;
+        }
+        if ((double) totals[1] / requests > failureRateThreshold || totals[2] / requests > slowCallNanos) {
+            eject(stats, now);
+        }
+    }
+
+    private void eject (Stats stats, long now) {
+        long until = stats.ejectedUntil.get();
+        if (now < until) {
+            return;
+        }
+        if (until != 0 && now - until > recoveryNanos + maxEjectionNanos) {
+            // the instance was healthy for a long time since previous ejection
+            stats.ejections.set(0);
+        }
+        int ejections = stats.ejections.get();
+        long duration = Math.min(baseEjectionNanos << Math.min(ejections, 20), maxEjectionNanos);
+        if (stats.ejectedUntil.compareAndSet(until, now + duration)) {
+            stats.ejections.incrementAndGet();
+            stats.window.reset();
+        }
+    }
+
+    private Stats find (Instance instance) {
+        Map<Key, Stats> ids = groups.get(instance.getGroup());
+        return ids != null
+               ? ids.get(Key.of(instance))
+               : null;
+    }
+
+    /**
+     * Returns time since detector creation, it is always positive.
+     */
+    private long now () {
+        return clock.getAsLong() - origin + 1;
+    }
+
+    private static long nanos (Duration duration, Duration defaultValue) {
+        return duration != null
+               ? duration.toNanos()
+               : defaultValue.toNanos();
+    }
+
+    /**
+     * Instance id, as {@link Instance} stores it.
+     */
+    @Value
+    private static class Key {
+
+        static Key of (Instance instance) {
+            return new Key(instance.isCompactId(), instance.getIdMostSignificantBits(),
+                           instance.getIdLeastSignificantBits(), instance.getRawId());
+        }
+
+        boolean compact;
+
+        long most;
+
+        long least;
+
+        String raw;
+    }
+
+    private static final class Stats {
+
+        private final Window window;
+
+        /**
+         * End of current or last ejection, {@code 0} if instance was never ejected.
+         */
+        private final AtomicLong ejectedUntil;
+
+        private final AtomicInteger ejections;
+
+        Stats (long bucketNanos) {
+            window = new Window(bucketNanos);
+            ejectedUntil = new AtomicLong();
+            ejections = new AtomicInteger();
+        }
+    }
+
+    /**
+     * Ring of time buckets, every bucket is four array cells: epoch, successes, failures and total latency.
+     */
+    static final class Window {
+
+        private static final long EMPTY = Long.MIN_VALUE / 2;
+
+        private final long bucketNanos;
+
+        private final AtomicLongArray buckets;
+
+        Window (long bucketNanos) {
+            this.bucketNanos = Math.max(bucketNanos, 1);
+            buckets = new AtomicLongArray(BUCKETS * 4);
+            reset();
+        }
+
+        void record (long now, boolean success, long latencyNanos) {
+            long epoch = now / bucketNanos;
+            int index = (int) (epoch % BUCKETS) * 4;
+            long seen = buckets.get(index);
+            if (seen < epoch && buckets.compareAndSet(index, seen, epoch)) {
+                buckets.set(index + 1, 0);
+                buckets.set(index + 2, 0);
+                buckets.set(index + 3, 0);
+            }
+            buckets.incrementAndGet(success
+                                    ? index + 1
+                                    : index + 2);
+            buckets.addAndGet(index + 3, latencyNanos);
+        }
+
+        /**
+         * Sums buckets of the current window.
+         *
+         * @return successes, failures and total latency
+         */
+        long[] totals (long now) {
+            long epoch = now / bucketNanos;
+            long[] result = new long[3];
+            for (int index = 0; index < BUCKETS * 4; index += 4) {
+                long age = epoch - buckets.get(index);
+                if (age >= 0 && age < BUCKETS) {
+                    result[0] += buckets.get(index + 1);
+                    result[1] += buckets.get(index + 2);
+                    result[2] += buckets.get(index + 3);
+                }
+            }
+            return result;
+        }
+
+        void reset () {
+            for (int index = 0; index < BUCKETS * 4; index += 4) {
+                buckets.set(index, EMPTY);
+            }
+        }
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2017 Artem Labazin <xxlabaza@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.xxlabaza.luntic.client;
+
+import static com.fasterxml.jackson.core.JsonToken.FIELD_NAME;
+import static com.fasterxml.jackson.core.JsonToken.START_OBJECT;
+import static com.fasterxml.jackson.core.JsonToken.VALUE_NULL;
+import static java.util.Collections.emptyMap;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import feign.Response;
+import feign.Util;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Decoder of {@code GET /} responses, which decodes groups in parallel.
+ * <p/>
+ * The response is buffered and scanned once for byte ranges of groups' arrays. The scan only
+ * tokenizes the document and skips the arrays, so it is much cheaper than decoding. Then every
+ * group is decoded by a separate task in the fork-join pool, and results are merged into a map
+ * with the original groups order.
+ * <p/>
+ * Smile documents can refer to names from their beginning, so they can't be split and are decoded
+ * sequentially, as well as small documents, where splitting doesn't pay off.
+ *
+ * @author Artem Labazin <xxlabaza@gmail.com>
+ * @since Oct 18, 2026
+ */
+final class ParallelDecoder {
+
+    static final int MIN_PARALLEL_BYTES = 64 * 1024;
+
+    private static final TypeReference<Map<String, List<Instance>>> REGISTRY_TYPE =
+            new TypeReference<Map<String, List<Instance>>>() {
+            };
+
+    private static final TypeReference<List<Instance>> GROUP_TYPE =
+            new TypeReference<List<Instance>>() {
+            };
+
+    private final Codec codec;
+
+    private final ForkJoinPool pool;
+
+    private final TimingListener timingListener;
+
+    ParallelDecoder (Codec codec, ForkJoinPool pool, TimingListener timingListener) {
+        this.codec = codec;
+        this.pool = pool;
+        this.timingListener = timingListener;
+    }
+
+    Map<String, List<Instance>> decode (Response response) {
+        try {
+            if (response.status() == 404 || response.body() == null) {
+                return emptyMap();
+            }
+            byte[] bytes;
+            try (InputStream stream = response.body().asInputStream()) {
+                bytes = Util.toByteArray(stream);
+            }
+            if (bytes.length == 0) {
+                return emptyMap();
+            }
+
+            Object scope = ScopedTimingListener.startDecode(timingListener);
+            long start = System.nanoTime();
+            ObjectMapper mapper = codec.mapper(response);
+            Map<String, List<Instance>> result = mapper != codec.getJson() || bytes.length < MIN_PARALLEL_BYTES
+                                                 ? mapper.readerFor(REGISTRY_TYPE).readValue(bytes)
+                                                 : decodeParallel(mapper, bytes);
+            if (timingListener != null) {
+                ScopedTimingListener.finishDecode(timingListener, scope, REGISTRY_TYPE.getType().getTypeName(),
+                                                  System.nanoTime() - start);
+            }
+            return result;
+        } catch (IOException ex) {
+            throw new DiscoveryException("Couldn't read instances. Reason: " + ex.getMessage(), ex);
+        } finally {
+            response.close();
+        }
+    }
+
+    Map<String, List<Instance>> decodeParallel (ObjectMapper mapper, byte[] bytes) throws IOException {
+        ObjectReader reader = mapper.readerFor(GROUP_TYPE);
+        List<String> names = new ArrayList<>();
+        List<ForkJoinTask<List<Instance>>> tasks = new ArrayList<>();
+
+        try (JsonParser parser = mapper.getFactory().createParser(bytes)) {
+            if (parser.nextToken() != START_OBJECT) {
+                return emptyMap();
+            }
+            while (parser.nextToken() == FIELD_NAME) {
+                String name = parser.getCurrentName();
+                JsonToken token = parser.nextToken();
+                if (token == VALUE_NULL) {
+                    names.add(name);
+                    tasks.add(null);
+                    continue;
+                }
+                int from = (int) parser.getTokenLocation().getByteOffset();
+                parser.skipChildren();
+                int to = (int) parser.getCurrentLocation().getByteOffset();
+
+                names.add(name);
+                tasks.add(pool.submit(() -> reader.<List<Instance>>readValue(bytes, from, to - from)));
+            }
+        }
+
+        Map<String, List<Instance>> result = new LinkedHashMap<>(names.size() * 4 / 3 + 1);
+        try {
+            for (int i = 0; i < names.size(); i++) {
+                ForkJoinTask<List<Instance>> task = tasks.get(i);
+                result.put(names.get(i), task != null
+                                         ? task.join()
+                                         : null);
+            }
+        } catch (RuntimeException ex) {
+            tasks.stream()
+                    .filter(it -> it != null)
+                    .forEach(it -> it.cancel(true));
+            throw new DiscoveryException("Couldn't decode instances. Reason: " + ex.getMessage(), ex);
+        }
+        return result;
+    }
+}
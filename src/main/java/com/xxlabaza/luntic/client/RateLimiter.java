@@ -0,0 +1,138 @@
+/*
+ * Copyright 2017 Artem Labazin <xxlabaza@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.xxlabaza.luntic.client;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import okhttp3.Interceptor;
+import okhttp3.Response;
+
+/**
+ * Token bucket limiter of outbound requests to Luntic.
+ * <p/>
+ * The {@link #SHARED} instance is installed into every client's HTTP stack, so all
+ * {@link Discovery} instances in the JVM draw from one bucket. Requests over the limit
+ * are not rejected, they reserve a future token and wait for it, which smooths bursts
+ * (like a mass registration after Luntic restart) into a steady rate. The limiter is
+ * disabled until it is configured.
+ * <p/>
+ * Heartbeats go through {@link #priority()} view, which takes tokens without waiting, so a heartbeat
+ * can't miss instance's expiration, and other requests pay for them instead. Registration waits
+ * like reads do, spreading registrations after Luntic restart is the point of the limiter.
+ *
+ * @author Artem Labazin <xxlabaza@gmail.com>
+ * @since Oct 18, 2026
+ */
+final class RateLimiter implements Interceptor {
+
+    static final RateLimiter SHARED = new RateLimiter();
+
+    private final Lock lock;
+
+    private volatile boolean enabled;
+
+    private double permitsPerNano;
+
+    private double burst;
+
+    private double tokens;
+
+    private long refilled;
+
+    RateLimiter () {
+        lock = new ReentrantLock();
+    }
+
+    /**
+     * Sets new limits, non positive rate disables the limiter.
+     */
+    void configure (double permitsPerSecond, int burst) {
+        lock.lock();
+        try {
+            enabled = permitsPerSecond > 0;
+            permitsPerNano = permitsPerSecond / SECONDS.toNanos(1);
+            this.burst = Math.max(burst, 1);
+            tokens = this.burst;
+            refilled = System.nanoTime();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Takes a token, waiting for it if the bucket is empty.
+     */
+    void acquire () throws InterruptedIOException {
+        long wait = reserve();
+        if (wait <= 0) {
+            return;
+        }
+        try {
+            NANOSECONDS.sleep(wait);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for Luntic rate limiter");
+        }
+    }
+
+    /**
+     * Takes a token, possibly from the future.
+     *
+     * @return nanoseconds to wait until the taken token becomes available
+     */
+    long reserve () {
+        if (!enabled) {
+            return 0;
+        }
+        lock.lock();
+        try {
+            if (!enabled) {
+                return 0;
+            }
+            long now = System.nanoTime();
+            tokens = Math.min(burst, tokens + (now - refilled) * permitsPerNano);
+            refilled = now;
+            tokens -= 1;
+            return tokens >= 0
+                   ? 0
+                   : (long) (-tokens / permitsPerNano);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns interceptor, which takes a token from the same bucket, but doesn't wait for it.
+     */
+    Interceptor priority () {
+        return chain -> {
+            reserve();
+            return chain.proceed(chain.request());
+        };
+    }
+
+    @Override
+    public Response intercept (Chain chain) throws IOException {
+        acquire();
+        return chain.proceed(chain.request());
+    }
+}
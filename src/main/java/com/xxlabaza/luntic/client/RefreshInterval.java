@@ -0,0 +1,86 @@
+/*
+ * Copyright 2017 Artem Labazin <xxlabaza@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.xxlabaza.luntic.client;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Period of background snapshot refreshing, which follows registry change rate.
+ * <p/>
+ * A refresh, which brings any added, removed or updated instances, resets the period
+ * to its minimum - more changes usually follow during deploys. Every refresh without
+ * changes doubles the period, up to its maximum, so a stable registry is polled rarely.
+ * Equal bounds give a fixed period, the change rate is measured anyway.
+ * <p/>
+ * Changes are recorded under refresher's lock, metrics are read by any thread.
+ *
+ * @author Artem Labazin <xxlabaza@gmail.com>
+ * @since Oct 18, 2026
+ */
+final class RefreshInterval {
+
+    static final double ALPHA = 0.3D;
+
+    private final long minMillis;
+
+    private final long maxMillis;
+
+    private volatile long currentMillis;
+
+    private volatile double changeRate;
+
+    private long lastNanos;
+
+    RefreshInterval (long minMillis, long maxMillis) {
+        this.minMillis = minMillis;
+        this.maxMillis = maxMillis;
+        currentMillis = minMillis;
+    }
+
+    /**
+     * Records result of a successful refresh.
+     *
+     * @param changes number of added, removed and updated instances
+     * @param nanos   refresh time, {@link System#nanoTime()}
+     */
+    void record (int changes, long nanos) {
+        if (lastNanos != 0) {
+            double seconds = (double) Math.max(nanos - lastNanos, 1) / SECONDS.toNanos(1);
+            double rate = changeRate;
+            changeRate = rate + ALPHA * (changes / seconds - rate);
+        }
+        lastNanos = nanos;
+        currentMillis = changes > 0
+                        ? minMillis
+                        : Math.min(currentMillis * 2, maxMillis);
+    }
+
+    long currentMillis () {
+        return currentMillis;
+    }
+
+    /**
+     * Returns exponentially weighted moving average of changed instances per second.
+     */
+    double changeRate () {
+        return changeRate;
+    }
+
+    RefreshStats stats () {
+        return new RefreshStats(currentMillis, changeRate);
+    }
+}
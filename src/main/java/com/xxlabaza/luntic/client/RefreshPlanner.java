@@ -0,0 +1,96 @@
+/*
+ * Copyright 2017 Artem Labazin <xxlabaza@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.xxlabaza.luntic.client;
+
+/**
+ * Chooses how tracked groups are fetched: by one {@code getAll} request or by
+ * parallel {@code getByGroup} requests.
+ * <p/>
+ * Both strategies are measured, their latencies are smoothed by exponentially weighted
+ * moving averages and the cheaper one is used. The other strategy is re-measured from
+ * time to time, so the choice follows changes of registry size and network conditions.
+ * If tracked groups are almost the whole {@code getAll} payload, per-group requests
+ * can't transfer less, so they aren't explored at all.
+ * <p/>
+ * The class isn't thread safe, it is guarded by refresher's lock.
+ *
+ * @author Artem Labazin <xxlabaza@gmail.com>
+ * @since Oct 18, 2026
+ */
+final class RefreshPlanner {
+
+    static final double ALPHA = 0.3D;
+
+    static final int EXPLORATION_PERIOD = 16;
+
+    static final double FULL_SHARE = 0.95D;
+
+    private double allNanos = Double.NaN;
+
+    private double groupsNanos = Double.NaN;
+
+    private double trackedShare = Double.NaN;
+
+    private long plans;
+
+    /**
+     * Decides the strategy of the next refresh.
+     *
+     * @return {@code true} for one {@code getAll} request, {@code false} for per-group requests
+     */
+    boolean useAll () {
+        plans++;
+        if (Double.isNaN(allNanos)) {
+            // the first refresh also measures tracked groups share of the whole payload
+            return true;
+        }
+        if (trackedShare >= FULL_SHARE) {
+            return true;
+        }
+        if (Double.isNaN(groupsNanos)) {
+            return false;
+        }
+        boolean all = allNanos <= groupsNanos;
+        return plans % EXPLORATION_PERIOD == 0
+               ? !all
+               : all;
+    }
+
+    void recordAll (long nanos, int totalInstances, int trackedInstances) {
+        allNanos = ewma(allNanos, nanos);
+        double share = totalInstances > 0
+                       ? (double) trackedInstances / totalInstances
+                       : 1.D;
+        trackedShare = ewma(trackedShare, share);
+    }
+
+    void recordGroups (long nanos) {
+        groupsNanos = ewma(groupsNanos, nanos);
+    }
+
+    @Override
+    public String toString () {
+        return String.format("RefreshPlanner(allNanos=%.0f, groupsNanos=%.0f, trackedShare=%.2f)",
+                             allNanos, groupsNanos, trackedShare);
+    }
+
+    private static double ewma (double average, double value) {
+        return Double.isNaN(average)
+               ? value
+               : average + ALPHA * (value - average);
+    }
+}
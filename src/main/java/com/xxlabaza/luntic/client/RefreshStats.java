@@ -0,0 +1,41 @@
+/*
+ * Copyright 2017 Artem Labazin <xxlabaza@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.xxlabaza.luntic.client;
+
+import lombok.Value;
+
+/**
+ * Metrics of background snapshot refreshing.
+ *
+ * @author Artem Labazin <xxlabaza@gmail.com>
+ * @since Oct 18, 2026
+ */
+@Value
+public class RefreshStats {
+
+    static final RefreshStats DISABLED = new RefreshStats(0, 0.D);
+
+    /**
+     * Current delay between refreshes in milliseconds, {@code 0} if background refreshing is disabled.
+     */
+    long intervalMillis;
+
+    /**
+     * Smoothed number of added, removed and updated instances per second.
+     */
+    double changeRate;
+}
@@ -0,0 +1,274 @@
+/*
+ * Copyright 2017 Artem Labazin <xxlabaza@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.xxlabaza.luntic.client;
+
+import static com.xxlabaza.luntic.client.InstanceChange.Type.TOUCHED;
+import static java.util.Collections.unmodifiableList;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static java.util.stream.Collectors.collectingAndThen;
+import static java.util.stream.Collectors.toList;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Single writer of {@link RegistrySnapshot}s.
+ * <p/>
+ * Writers are serialized by a lock, so versions never go backwards, readers only
+ * do one volatile read of the current snapshot. Registry listeners are notified
+ * about changes between replaced and new snapshots.
+ * <p/>
+ * If client tracks only some groups, each refresh fetches all of them in one cycle
+ * (see {@link RefreshPlanner}), so a snapshot never mixes groups from different moments.
+ *
+ * @author Artem Labazin <xxlabaza@gmail.com>
+ * @since Oct 18, 2026
+ */
+final class Refresher {
+
+    private static final int MAX_PARALLEL_REQUESTS = 8;
+
+    private final Api api;
+
+    private final Supplier<Map<String, List<Instance>>> allInstances;
+
+    private final UnaryOperator<Map<String, List<Instance>>> filter;
+
+    private final Lock lock;
+
+    private final List<RegistryListener> listeners;
+
+    private final ExecutorService requests;
+
+    private Set<String> tracked;
+
+    private RefreshPlanner planner;
+
+    private volatile RefreshInterval interval;
+
+    private volatile RegistrySnapshot snapshot;
+
+    Refresher (Api api, Supplier<Map<String, List<Instance>>> allInstances,
+               UnaryOperator<Map<String, List<Instance>>> filter
+    ) {
+        this.api = api;
+        this.allInstances = allInstances;
+        this.filter = filter;
+        lock = new ReentrantLock();
+        listeners = new CopyOnWriteArrayList<>();
+        // threads are started on demand and die when idle, so clients without tracked groups don't have them
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(MAX_PARALLEL_REQUESTS, MAX_PARALLEL_REQUESTS,
+                                                             60, SECONDS, new LinkedBlockingQueue<>(),
+                                                             Threads.factory("luntic-refresh-requests"));
+        executor.allowCoreThreadTimeOut(true);
+        requests = executor;
+        snapshot = RegistrySnapshot.EMPTY;
+    }
+
+    void addListener (RegistryListener listener) {
+        listeners.add(listener);
+    }
+
+    void removeListener (RegistryListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Limits refreshes to specified groups, {@code null} or empty set means the whole registry.
+     */
+    void track (Set<String> groups) {
+        lock.lock();
+        try {
+            tracked = groups == null || groups.isEmpty()
+                      ? null
+                      : Collections.unmodifiableSet(new LinkedHashSet<>(groups));
+            planner = tracked != null
+                      ? new RefreshPlanner()
+                      : null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void close () {
+        requests.shutdownNow();
+    }
+
+    RegistrySnapshot snapshot () {
+        return snapshot;
+    }
+
+    RefreshStats stats () {
+        RefreshInterval current = interval;
+        return current != null
+               ? current.stats()
+               : RefreshStats.DISABLED;
+    }
+
+    RegistrySnapshot refresh () {
+        lock.lock();
+        try {
+            Set<String> groups = tracked;
+            Map<String, List<Instance>> registry = groups == null
+                                                   ? allInstances.get()
+                                                   : fetchTracked(groups, planner);
+            RegistrySnapshot previous = snapshot;
+            RegistrySnapshot next = new RegistrySnapshot(previous.getVersion() + 1, filter.apply(registry));
+            snapshot = next;
+
+            RefreshInterval current = interval;
+            if (current == null && listeners.isEmpty()) {
+                return next;
+            }
+            List<InstanceChange> changes = unmodifiableList(RegistryDiff.compute(previous, next, true));
+            if (current != null) {
+                current.record(countModified(changes), System.nanoTime());
+            }
+            notifyListeners(previous, next, changes);
+            return next;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Map<String, List<Instance>> fetchTracked (Set<String> groups, RefreshPlanner planner) {
+        long start = System.nanoTime();
+        if (planner.useAll()) {
+            Map<String, List<Instance>> all = allInstances.get();
+            Map<String, List<Instance>> result = new LinkedHashMap<>();
+            int total = 0;
+            int matched = 0;
+            for (Entry<String, List<Instance>> entry : all.entrySet()) {
+                int size = entry.getValue() != null
+                           ? entry.getValue().size()
+                           : 0;
+                total += size;
+                if (groups.contains(entry.getKey())) {
+                    result.put(entry.getKey(), entry.getValue());
+                    matched += size;
+                }
+            }
+            planner.recordAll(System.nanoTime() - start, total, matched);
+            return result;
+        }
+
+        Map<String, CompletableFuture<List<Instance>>> futures = new LinkedHashMap<>();
+        for (String group : groups) {
+            futures.put(group, CompletableFuture.supplyAsync(() -> api.getByGroup(group), requests));
+        }
+        Map<String, List<Instance>> result = new LinkedHashMap<>();
+        try {
+            for (Entry<String, CompletableFuture<List<Instance>>> entry : futures.entrySet()) {
+                List<Instance> instances = entry.getValue().join();
+                // getAll doesn't return empty groups, so both strategies produce the same snapshots
+                if (instances != null && !instances.isEmpty()) {
+                    result.put(entry.getKey(), instances);
+                }
+            }
+        } catch (CompletionException ex) {
+            futures.values().forEach(it -> it.cancel(true));
+            Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new DiscoveryException("Couldn't refresh tracked groups", cause);
+        }
+        planner.recordGroups(System.nanoTime() - start);
+        return result;
+    }
+
+    private static int countModified (List<InstanceChange> changes) {
+        int count = 0;
+        for (InstanceChange change : changes) {
+            if (change.getType() != TOUCHED) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private void notifyListeners (RegistrySnapshot previous, RegistrySnapshot next, List<InstanceChange> all) {
+        if (listeners.isEmpty() || all.isEmpty()) {
+            return;
+        }
+        List<InstanceChange> modified = null;
+        for (RegistryListener listener : listeners) {
+            List<InstanceChange> changes;
+            if (listener.includeTouched()) {
+                changes = all;
+            } else {
+                if (modified == null) {
+                    modified = all.stream()
+                            .filter(it -> it.getType() != TOUCHED)
+                            .collect(collectingAndThen(toList(), Collections::unmodifiableList));
+                }
+                changes = modified;
+            }
+            if (changes.isEmpty()) {
+                continue;
+            }
+            try {
+                listener.onChanges(previous, next, changes);
+            } catch (RuntimeException ex) {
+                // a broken listener must not affect snapshot refreshing or other listeners
+            }
+        }
+    }
+
+    /**
+     * Starts periodic refreshing. Failed refreshes keep previous snapshot and period,
+     * and don't stop the schedule, it stops only when executor is shut down.
+     */
+    void start (ScheduledExecutorService executor, RefreshInterval interval) {
+        this.interval = interval;
+        Runnable task = new Runnable() {
+
+            @Override
+            public void run () {
+                try {
+                    refresh();
+                } catch (RuntimeException ex) {
+                    // previous snapshot stays current until next successful refresh
+                }
+                try {
+                    executor.schedule(this, interval.currentMillis(), MILLISECONDS);
+                } catch (RejectedExecutionException ex) {
+                    // executor was shut down - client is deregistered
+                }
+            }
+        };
+        executor.execute(task);
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2017 Artem Labazin <xxlabaza@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.xxlabaza.luntic.client;
+
+/**
+ * Listener of client's registration state changes.
+ * <p/>
+ * Methods are invoked from heartbeat thread, so they shouldn't block.
+ *
+ * @author Artem Labazin <xxlabaza@gmail.com>
+ * @since Oct 18, 2026
+ */
+public interface RegistrationListener {
+
+    /**
+     * Listener, which does nothing.
+     */
+    RegistrationListener NONE = new RegistrationListener() {
+    };
+
+    /**
+     * Invoked when Luntic doesn't know the client anymore, usually because it was expired.
+     * Re-registration starts right after this call.
+     *
+     * @param discovery client, which lost its registration
+     */
+    default void registrationLost (Discovery discovery) {
+    }
+
+    /**
+     * Invoked when client is registered again. The client has a new id at this moment.
+     *
+     * @param discovery client with restored registration
+     */
+    default void registrationRestored (Discovery discovery) {
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2017 Artem Labazin <xxlabaza@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.xxlabaza.luntic.client;
+
+import static com.xxlabaza.luntic.client.InstanceChange.Type.ADDED;
+import static com.xxlabaza.luntic.client.InstanceChange.Type.REMOVED;
+import static com.xxlabaza.luntic.client.InstanceChange.Type.TOUCHED;
+import static com.xxlabaza.luntic.client.InstanceChange.Type.UPDATED;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.Objects;
+
+/**
+ * Computes changes between two registry snapshots.
+ * <p/>
+ * Both snapshots already have {@code (group, id)} hash indexes, so the diff is a single
+ * pass over each of them - O(n) instead of pairwise list comparison. Instances with
+ * the same key are compared by creation time and meta data directly: unchanged instances
+ * of consecutive snapshots are often the same objects, and maps of different size
+ * are told apart without comparing their entries.
+ *
+ * @author Artem Labazin <xxlabaza@gmail.com>
+ * @since Oct 18, 2026
+ */
+public final class RegistryDiff {
+
+    /**
+     * Computes changes, which transform previous snapshot into current one.
+     *
+     * @param previous       previous snapshot
+     * @param current        current snapshot
+     * @param includeTouched whether to report {@link InstanceChange.Type#TOUCHED} changes,
+     *                       where only last modified time differs
+     *
+     * @return list of changes, empty if snapshots have the same content
+     */
+    public static List<InstanceChange> compute (RegistrySnapshot previous, RegistrySnapshot current,
+                                                boolean includeTouched
+    ) {
+        List<InstanceChange> changes = new ArrayList<>();
+        for (Entry<String, List<Instance>> entry : current.all().entrySet()) {
+            String group = entry.getKey();
+            for (Instance instance : entry.getValue()) {
+                Instance old = previous.instance(group, instance.getId());
+                if (old == null) {
+                    changes.add(new InstanceChange(ADDED, null, instance));
+                } else if (!sameContent(old, instance)) {
+                    changes.add(new InstanceChange(UPDATED, old, instance));
+                } else if (includeTouched && !Objects.equals(old.getModified(), instance.getModified())) {
+                    changes.add(new InstanceChange(TOUCHED, old, instance));
+                }
+            }
+        }
+        for (Entry<String, List<Instance>> entry : previous.all().entrySet()) {
+            String group = entry.getKey();
+            for (Instance instance : entry.getValue()) {
+                if (current.instance(group, instance.getId()) == null) {
+                    changes.add(new InstanceChange(REMOVED, instance, null));
+                }
+            }
+        }
+        return changes;
+    }
+
+    /**
+     * Compares instance content, ignoring last modified time.
+     */
+    private static boolean sameContent (Instance first, Instance second) {
+        return first == second
+               || Objects.equals(first.getCreated(), second.getCreated())
+                  && Objects.equals(first.getMeta(), second.getMeta());
+    }
+
+    private RegistryDiff () {
+    }
+}
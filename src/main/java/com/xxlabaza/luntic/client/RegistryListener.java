@@ -0,0 +1,49 @@
+/*
+ * Copyright 2017 Artem Labazin <xxlabaza@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.xxlabaza.luntic.client;
+
+import java.util.List;
+
+/**
+ * Listener of registry changes, detected between consecutive {@link RegistrySnapshot}s.
+ * <p/>
+ * It is invoked from the thread, which refreshed the snapshot, and only if there are changes.
+ *
+ * @author Artem Labazin <xxlabaza@gmail.com>
+ * @since Oct 18, 2026
+ */
+@FunctionalInterface
+public interface RegistryListener {
+
+    /**
+     * Invoked after new snapshot is published.
+     *
+     * @param previous previous snapshot
+     * @param current  new current snapshot
+     * @param changes  non-empty list of changes
+     */
+    void onChanges (RegistrySnapshot previous, RegistrySnapshot current, List<InstanceChange> changes);
+
+    /**
+     * Tells whether the listener is interested in {@link InstanceChange.Type#TOUCHED} changes.
+     * By default they are skipped, so heartbeats don't flood listeners.
+     *
+     * @return {@code true} for receiving changes of last modified time only
+     */
+    default boolean includeTouched () {
+        return false;
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright 2017 Artem Labazin <xxlabaza@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.xxlabaza.luntic.client;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.unmodifiableList;
+import static java.util.Collections.unmodifiableMap;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import lombok.Getter;
+
+/**
+ * Immutable, versioned view of the whole Luntic registry.
+ * <p/>
+ * Snapshots are built once by a background refresher and then shared between
+ * any number of reader threads without locking or copying. Per-group lists and
+ * id indexes are prebuilt, so all lookups are plain hash map reads.
+ *
+ * @author Artem Labazin <xxlabaza@gmail.com>
+ * @since Oct 18, 2026
+ */
+public final class RegistrySnapshot {
+
+    static final RegistrySnapshot EMPTY = new RegistrySnapshot(0, emptyMap());
+
+    /**
+     * Monotonically increasing snapshot number, {@code 0} means nothing was fetched yet.
+     */
+    @Getter
+    private final long version;
+
+    /**
+     * Wall clock time, when snapshot was created.
+     */
+    @Getter
+    private final Instant timestamp;
+
+    private final long createdNanos;
+
+    private final Map<String, List<Instance>> groups;
+
+    private final Map<String, Map<String, Instance>> index;
+
+    private final int size;
+
+    RegistrySnapshot (long version, Map<String, List<Instance>> registry) {
+        this.version = version;
+        timestamp = Instant.now();
+        createdNanos = System.nanoTime();
+
+        Map<String, List<Instance>> groups = new LinkedHashMap<>(registry.size() * 4 / 3 + 1);
+        Map<String, Map<String, Instance>> index = new HashMap<>(registry.size() * 4 / 3 + 1);
+        int size = 0;
+        for (Entry<String, List<Instance>> entry : registry.entrySet()) {
+            List<Instance> instances = entry.getValue() != null
+                                       ? entry.getValue()
+                                       : emptyList();
+
+            Map<String, Instance> ids = new HashMap<>(instances.size() * 4 / 3 + 1);
+            instances.forEach(it -> ids.put(it.getId(), it));
+
+            groups.put(entry.getKey(), unmodifiableList(new ArrayList<>(instances)));
+            index.put(entry.getKey(), ids);
+            size += instances.size();
+        }
+        this.groups = unmodifiableMap(groups);
+        this.index = index;
+        this.size = size;
+    }
+
+    /**
+     * Returns time passed since snapshot creation.
+     *
+     * @return snapshot age
+     */
+    public Duration getAge () {
+        return Duration.ofNanos(System.nanoTime() - createdNanos);
+    }
+
+    /**
+     * Returns instances of specified group.
+     *
+     * @param group requested instance group name
+     *
+     * @return unmodifiable list of instances, empty if there is no such group
+     */
+    public List<Instance> group (String group) {
+        return groups.getOrDefault(group, emptyList());
+    }
+
+    /**
+     * Returns instance by its group and id.
+     *
+     * @param group requested instance group name
+     * @param id    requested instance id
+     *
+     * @return requested instance or {@code null} if there is no such instance
+     */
+    public Instance instance (String group, String id) {
+        Map<String, Instance> ids = index.get(group);
+        return ids != null
+               ? ids.get(id)
+               : null;
+    }
+
+    /**
+     * Returns absolutely all instances in snapshot.
+     *
+     * @return unmodifiable map group->instances
+     */
+    public Map<String, List<Instance>> all () {
+        return groups;
+    }
+
+    /**
+     * Returns names of all groups in snapshot.
+     *
+     * @return unmodifiable set of group names
+     */
+    public Set<String> groups () {
+        return groups.keySet();
+    }
+
+    /**
+     * Returns total number of instances in snapshot.
+     *
+     * @return number of instances
+     */
+    public int size () {
+        return size;
+    }
+
+    @Override
+    public String toString () {
+        return "RegistrySnapshot(version=" + version + ", timestamp=" + timestamp + ", size=" + size + ')';
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2017 Artem Labazin <xxlabaza@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.xxlabaza.luntic.client;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Timing breakdown of a single HTTP exchange with Luntic.
+ * <p/>
+ * All durations are in nanoseconds, phases which didn't happen (for example,
+ * DNS lookup and connecting for a pooled connection) are {@code 0}.
+ *
+ * @author Artem Labazin <xxlabaza@gmail.com>
+ * @since Oct 18, 2026
+ */
+@Value
+@Builder
+public class RequestTiming {
+
+    String method;
+
+    String url;
+
+    /**
+     * Response status code or {@code -1} if exchange failed before getting response.
+     */
+    int status;
+
+    boolean failed;
+
+    long dnsNanos;
+
+    long connectNanos;
+
+    long secureConnectNanos;
+
+    /**
+     * Time spent for sending request headers and body.
+     */
+    long requestNanos;
+
+    /**
+     * Time between sent request and first response byte - server processing time plus network round trip.
+     */
+    long waitNanos;
+
+    /**
+     * Time spent for reading response headers and body.
+     */
+    long responseNanos;
+
+    long totalNanos;
+
+    long responseBytes;
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2017 Artem Labazin <xxlabaza@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.xxlabaza.luntic.client;
+
+/**
+ * Timing listener, which is also notified when measured operations start.
+ * <p/>
+ * Java Flight Recorder events measure themselves between {@code begin()} and {@code end()},
+ * so they must be begun when an operation starts, not when its timing is already known.
+ * Start methods return a scope object (for example, the begun event), which is passed back
+ * together with the timing of the same operation. Static helpers let callers treat scoped
+ * and plain listeners the same way.
+ *
+ * @author Artem Labazin <xxlabaza@gmail.com>
+ * @since Oct 18, 2026
+ */
+interface ScopedTimingListener extends TimingListener {
+
+    static Object startRequest (TimingListener listener) {
+        return listener instanceof ScopedTimingListener
+               ? ((ScopedTimingListener) listener).requestStarted()
+               : null;
+    }
+
+    static void finishRequest (TimingListener listener, Object scope, RequestTiming timing) {
+        if (listener instanceof ScopedTimingListener) {
+            ((ScopedTimingListener) listener).requestFinished(scope, timing);
+        } else {
+            listener.onRequest(timing);
+        }
+    }
+
+    static Object startDecode (TimingListener listener) {
+        return listener instanceof ScopedTimingListener
+               ? ((ScopedTimingListener) listener).decodeStarted()
+               : null;
+    }
+
+    static void finishDecode (TimingListener listener, Object scope, String type, long durationNanos) {
+        if (listener instanceof ScopedTimingListener) {
+            ((ScopedTimingListener) listener).decodeFinished(scope, type, durationNanos);
+        } else {
+            listener.onDecode(type, durationNanos);
+        }
+    }
+
+    /**
+     * Invoked when HTTP exchange starts.
+     *
+     * @return scope of the exchange, may be {@code null}
+     */
+    Object requestStarted ();
+
+    /**
+     * Invoked when HTTP exchange, started by {@link #requestStarted()}, is finished.
+     *
+     * @param scope  object, returned by {@link #requestStarted()}
+     * @param timing exchange timing breakdown
+     */
+    void requestFinished (Object scope, RequestTiming timing);
+
+    /**
+     * Invoked when response body decoding starts.
+     *
+     * @return scope of the decoding, may be {@code null}
+     */
+    Object decodeStarted ();
+
+    /**
+     * Invoked when decoding, started by {@link #decodeStarted()}, is finished.
+     *
+     * @param scope         object, returned by {@link #decodeStarted()}
+     * @param type          name of decoded type
+     * @param durationNanos decoding duration in nanoseconds
+     */
+    void decodeFinished (Object scope, String type, long durationNanos);
+
+    @Override
+    default void onRequest (RequestTiming timing) {
+        requestFinished(requestStarted(), timing);
+    }
+
+    @Override
+    default void onDecode (String type, long durationNanos) {
+        decodeFinished(decodeStarted(), type, durationNanos);
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2017 Artem Labazin <xxlabaza@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.xxlabaza.luntic.client;
+
+import static com.fasterxml.jackson.core.JsonToken.FIELD_NAME;
+import static com.fasterxml.jackson.core.JsonToken.START_ARRAY;
+import static com.fasterxml.jackson.core.JsonToken.START_OBJECT;
+
+import static com.fasterxml.jackson.databind.DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES;
+import static java.util.Collections.emptyList;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import feign.Response;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Incremental reader of {@code GET /} responses.
+ * <p/>
+ * Walks the {@code group -> [instances]} document token by token and hands
+ * every decoded {@link Instance} to a consumer, so only one instance is alive
+ * at a time instead of the whole registry map.
+ * <p/>
+ * It also reads {@code GET /{group}} responses as {@link TypedInstance}s, which types
+ * are known only at runtime and can't be expressed in {@link Api} methods.
+ *
+ * @author Artem Labazin <xxlabaza@gmail.com>
+ * @since Oct 18, 2026
+ */
+final class StreamingReader {
+
+    private final Codec codec;
+
+    StreamingReader (Codec codec) {
+        this.codec = codec;
+    }
+
+    void forEach (Response response, Consumer<? super Instance> consumer) {
+        try {
+            if (response.status() != 200) {
+                String message = String.format("Couldn't read instances. Status: %d, reason: %s",
+                                               response.status(), response.reason());
+                throw new DiscoveryException(message);
+            }
+            if (response.body() == null) {
+                return;
+            }
+            ObjectMapper mapper = codec.mapper(response);
+            try (InputStream stream = response.body().asInputStream();
+                 JsonParser parser = mapper.getFactory().createParser(stream)) {
+                read(parser, mapper.readerFor(Instance.class), consumer);
+            }
+        } catch (IOException ex) {
+            throw new DiscoveryException("Couldn't read instances. Reason: " + ex.getMessage(), ex);
+        } finally {
+            response.close();
+        }
+    }
+
+    <M> List<TypedInstance<M>> readGroup (Response response, Class<M> metaType) {
+        try {
+            if (response.status() == 404 || response.body() == null) {
+                return emptyList();
+            }
+            if (response.status() != 200) {
+                String message = String.format("Couldn't read instances. Status: %d, reason: %s",
+                                               response.status(), response.reason());
+                throw new DiscoveryException(message);
+            }
+            ObjectMapper mapper = codec.mapper(response);
+            TypeFactory types = mapper.getTypeFactory();
+            JavaType instanceType = types.constructParametricType(TypedInstance.class, metaType);
+            ObjectReader reader = mapper.readerFor(types.constructCollectionType(List.class, instanceType))
+                    .without(FAIL_ON_UNKNOWN_PROPERTIES);
+
+            try (InputStream stream = response.body().asInputStream()) {
+                return reader.readValue(stream);
+            }
+        } catch (IOException ex) {
+            throw new DiscoveryException("Couldn't read instances. Reason: " + ex.getMessage(), ex);
+        } finally {
+            response.close();
+        }
+    }
+
+    private void read (JsonParser parser, ObjectReader instanceReader, Consumer<? super Instance> consumer)
+            throws IOException {
+        if (parser.nextToken() != START_OBJECT) {
+            return;
+        }
+        while (parser.nextToken() == FIELD_NAME) {
+            if (parser.nextToken() != START_ARRAY) {
+                parser.skipChildren();
+                continue;
+            }
+            while (parser.nextToken() == START_OBJECT) {
+                Instance instance = instanceReader.readValue(parser);
+                consumer.accept(instance);
+            }
+        }
+    }
+}
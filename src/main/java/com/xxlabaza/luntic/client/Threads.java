@@ -0,0 +1,48 @@
+/*
+ * Copyright 2017 Artem Labazin <xxlabaza@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.xxlabaza.luntic.client;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Factories of client's background threads.
+ * <p/>
+ * The jar is multi-release: on Java 21+ this class is replaced by the version from
+ * {@code src/main/java21}, which creates virtual threads. The rest of the client only sees
+ * thread factories, so schedulers and pools are the same on every Java version.
+ *
+ * @author Artem Labazin <xxlabaza@gmail.com>
+ * @since Oct 18, 2026
+ */
+final class Threads {
+
+    /**
+     * Returns factory of threads with names like {@code name-1}.
+     *
+     * @param name threads name prefix
+     *
+     * @return thread factory
+     */
+    static ThreadFactory factory (String name) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> new Thread(runnable, name + '-' + counter.incrementAndGet());
+    }
+
+    private Threads () {
+    }
+}
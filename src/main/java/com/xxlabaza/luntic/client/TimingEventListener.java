@@ -0,0 +1,188 @@
+/*
+ * Copyright 2017 Artem Labazin <xxlabaza@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.xxlabaza.luntic.client;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.List;
+import okhttp3.Call;
+import okhttp3.EventListener;
+import okhttp3.Handshake;
+import okhttp3.Protocol;
+import okhttp3.Response;
+
+/**
+ * OkHttp event listener, which collects {@link RequestTiming} of one call.
+ * <p/>
+ * A new listener is created for every call, so no synchronization is needed.
+ *
+ * @author Artem Labazin <xxlabaza@gmail.com>
+ * @since Oct 18, 2026
+ */
+final class TimingEventListener extends EventListener {
+
+    static EventListener.Factory factory (TimingListener listener) {
+        return call -> new TimingEventListener(listener);
+    }
+
+    private final TimingListener listener;
+
+    private Object scope;
+
+    private long callStart;
+
+    private long dnsStart;
+
+    private long dnsNanos;
+
+    private long connectStart;
+
+    private long connectNanos;
+
+    private long secureConnectStart;
+
+    private long secureConnectNanos;
+
+    private long requestStart;
+
+    private long requestEnd;
+
+    private boolean responseStarted;
+
+    private long responseStart;
+
+    private long responseEnd;
+
+    private long responseBytes;
+
+    private int status = -1;
+
+    private TimingEventListener (TimingListener listener) {
+        this.listener = listener;
+    }
+
+    @Override
+    public void callStart (Call call) {
+        scope = ScopedTimingListener.startRequest(listener);
+        callStart = System.nanoTime();
+    }
+
+    @Override
+    public void dnsStart (Call call, String domainName) {
+        dnsStart = System.nanoTime();
+    }
+
+    @Override
+    public void dnsEnd (Call call, String domainName, List<InetAddress> addresses) {
+        dnsNanos += System.nanoTime() - dnsStart;
+    }
+
+    @Override
+    public void connectStart (Call call, InetSocketAddress address, Proxy proxy) {
+        connectStart = System.nanoTime();
+    }
+
+    @Override
+    public void secureConnectStart (Call call) {
+        secureConnectStart = System.nanoTime();
+    }
+
+    @Override
+    public void secureConnectEnd (Call call, Handshake handshake) {
+        secureConnectNanos += System.nanoTime() - secureConnectStart;
+    }
+
+    @Override
+    public void connectEnd (Call call, InetSocketAddress address, Proxy proxy, Protocol protocol) {
+        connectNanos += System.nanoTime() - connectStart;
+    }
+
+    @Override
+    public void connectFailed (Call call, InetSocketAddress address, Proxy proxy, Protocol protocol,
+                               IOException ex
+    ) {
+        connectNanos += System.nanoTime() - connectStart;
+    }
+
+    @Override
+    public void requestHeadersStart (Call call) {
+        requestStart = System.nanoTime();
+    }
+
+    @Override
+    public void requestHeadersEnd (Call call, okhttp3.Request request) {
+        requestEnd = System.nanoTime();
+    }
+
+    @Override
+    public void requestBodyEnd (Call call, long byteCount) {
+        requestEnd = System.nanoTime();
+    }
+
+    @Override
+    public void responseHeadersStart (Call call) {
+        responseStarted = true;
+        responseStart = System.nanoTime();
+    }
+
+    @Override
+    public void responseHeadersEnd (Call call, Response response) {
+        status = response.code();
+        responseEnd = System.nanoTime();
+    }
+
+    @Override
+    public void responseBodyEnd (Call call, long byteCount) {
+        responseBytes = byteCount;
+        responseEnd = System.nanoTime();
+    }
+
+    @Override
+    public void callEnd (Call call) {
+        publish(call, false);
+    }
+
+    @Override
+    public void callFailed (Call call, IOException ex) {
+        publish(call, true);
+    }
+
+    private void publish (Call call, boolean failed) {
+        long now = System.nanoTime();
+        RequestTiming timing = RequestTiming.builder()
+                .method(call.request().method())
+                .url(call.request().url().toString())
+                .status(status)
+                .failed(failed)
+                .dnsNanos(dnsNanos)
+                .connectNanos(connectNanos)
+                .secureConnectNanos(secureConnectNanos)
+                .requestNanos(requestEnd - requestStart)
+                .waitNanos(responseStarted
+                           ? responseStart - requestEnd
+                           : 0)
+                .responseNanos(responseStarted
+                               ? responseEnd - responseStart
+                               : 0)
+                .totalNanos(now - callStart)
+                .responseBytes(responseBytes)
+                .build();
+
+        ScopedTimingListener.finishRequest(listener, scope, timing);
+    }
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright 2017 Artem Labazin <xxlabaza@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.xxlabaza.luntic.client;
+
+/**
+ * Receiver of per-request timings.
+ * <p/>
+ * Methods are invoked synchronously on the requesting thread, so implementations must be fast
+ * and non-blocking.
+ *
+ * @author Artem Labazin <xxlabaza@gmail.com>
+ * @since Oct 18, 2026
+ */
+public interface TimingListener {
+
+    /**
+     * Invoked when HTTP exchange is finished - response body is read or exchange failed.
+     *
+     * @param timing exchange timing breakdown
+     */
+    void onRequest (RequestTiming timing);
+
+    /**
+     * Invoked when response body is decoded into objects.
+     *
+     * @param type          name of decoded type
+     * @param durationNanos decoding duration in nanoseconds
+     */
+    void onDecode (String type, long durationNanos);
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2017 Artem Labazin <xxlabaza@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.xxlabaza.luntic.client;
+
+import static lombok.AccessLevel.NONE;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.BeanProperty;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.deser.ContextualDeserializer;
+import com.xxlabaza.luntic.client.Instance.InstanceBuilder;
+import java.io.IOException;
+import java.time.ZonedDateTime;
+import java.util.Optional;
+import lombok.Getter;
+import lombok.Value;
+
+/**
+ * Discovery service record with meta data bound to a user type.
+ * <p/>
+ * Meta data is read straight from the parser by Jackson's bean deserializer of the meta type,
+ * there is no intermediate map with boxed values, so reading a meta field is a plain getter call.
+ * Meta fields, which are absent in the meta type, are ignored.
+ *
+ * @param <M> meta data type
+ *
+ * @author Artem Labazin <xxlabaza@gmail.com>
+ * @since Oct 18, 2026
+ */
+@Value
+@JsonDeserialize(using = TypedInstance.Deserializer.class)
+public class TypedInstance<M> {
+
+    /**
+     * Instance's common fields, its own meta is always empty.
+     */
+    @Getter(NONE)
+    Instance instance;
+
+    /**
+     * Bound meta data, {@code null} if instance has no meta data.
+     */
+    M meta;
+
+    public String getId () {
+        return instance.getId();
+    }
+
+    public String getGroup () {
+        return instance.getGroup();
+    }
+
+    public ZonedDateTime getCreated () {
+        return instance.getCreated();
+    }
+
+    public ZonedDateTime getModified () {
+        return instance.getModified();
+    }
+
+    @Override
+    public String toString () {
+        return new StringBuilder("TypedInstance(")
+                .append("id=").append(getId())
+                .append(", group=").append(getGroup())
+                .append(", created=").append(getCreated())
+                .append(", modified=").append(getModified())
+                .append(", meta=").append(meta)
+                .append(')')
+                .toString();
+    }
+
+    /**
+     * Deserializer of typed instances. Jackson contextualizes it for every {@code TypedInstance<M>} type,
+     * so the meta type's deserializer is resolved once, not per instance.
+     */
+    static class Deserializer extends JsonDeserializer<TypedInstance<?>> implements ContextualDeserializer {
+
+        private final JsonDeserializer<Object> metaDeserializer;
+
+        Deserializer () {
+            this(null);
+        }
+
+        private Deserializer (JsonDeserializer<Object> metaDeserializer) {
+            this.metaDeserializer = metaDeserializer;
+        }
+
+        @Override
+        public JsonDeserializer<?> createContextual (DeserializationContext context, BeanProperty property)
+                throws JsonMappingException {
+
+            JavaType type = context.getContextualType();
+            if (type == null && property != null) {
+                type = property.getType();
+            }
+            JavaType metaType = type != null
+                                ? type.containedTypeOrUnknown(0)
+                                : context.getTypeFactory().constructType(Object.class);
+
+            return new Deserializer(context.findRootValueDeserializer(metaType));
+        }
+
+        @Override
+        public TypedInstance<?> deserialize (JsonParser parser, DeserializationContext context) throws IOException {
+            if (metaDeserializer == null) {
+                throw context.mappingException("Meta type of TypedInstance is unknown");
+            }
+            InstanceBuilder builder = Instance.builder();
+            Object meta = Instance.Deserializer.readFields(parser, builder,
+                                                           it -> metaDeserializer.deserialize(it, context));
+            return new TypedInstance<>(builder.meta(Optional.empty()).build(), meta);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright 2017 Artem Labazin <xxlabaza@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.xxlabaza.luntic.client;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Preferred format of Luntic responses.
+ *
+ * @author Artem Labazin <xxlabaza@gmail.com>
+ * @since Oct 18, 2026
+ */
+@RequiredArgsConstructor
+public enum WireFormat {
+
+    /**
+     * Plain text JSON, supported by every Luntic server.
+     */
+    JSON("application/json"),
+
+    /**
+     * Binary Jackson Smile. Client falls back to JSON if server doesn't support it.
+     */
+    SMILE("application/x-jackson-smile");
+
+    @Getter
+    private final String mediaType;
+}
@@ -0,0 +1,268 @@
+/*
+ * Copyright 2017 Artem Labazin <xxlabaza@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.xxlabaza.luntic.client;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import lombok.Builder;
+
+/**
+ * Locality-aware instance selection, based on zone value in instances meta data.
+ * <p/>
+ * Requests stay in caller's zone as long as the zone has its fair share of healthy instances.
+ * The fair share is the part of caller's own group, which is located in caller's zone
+ * (or {@code 1 / zones} if caller's group is unknown). When local zone has less than that
+ * (because it is small or its instances are unhealthy), the missing part of traffic spills over
+ * to instances of other zones, proportionally to their size.
+ * <p/>
+ * Routes are computed once per group and {@link RegistrySnapshot} version,
+ * so {@link #choose(String)} is a map lookup and a random number. Unlike the healthy predicate,
+ * the optional availability predicate (for example, {@link OutlierDetector#isAvailable(Instance)})
+ * is checked on every choice, so it reacts to changes between snapshots.
+ *
+ * @author Artem Labazin <xxlabaza@gmail.com>
+ * @since Oct 18, 2026
+ */
+public final class ZoneAwareRouter {
+
+    private final Supplier<RegistrySnapshot> snapshots;
+
+    private final String zoneKey;
+
+    private final String zone;
+
+    private final String callerGroup;
+
+    private final Predicate<Instance> healthy;
+
+    private final Predicate<Instance> available;
+
+    private volatile Routes routes;
+
+    /**
+     * Creates new router.
+     *
+     * @param snapshots   source of registry snapshots, usually {@code discovery::snapshot}
+     * @param zoneKey     meta data key with zone name, default - "zone"
+     * @param zone        caller's zone name
+     * @param callerGroup caller's group name, used for computing local zone fair share, optional
+     * @param healthy     predicate for excluding unhealthy instances, checked once per snapshot, optional
+     * @param available   predicate for skipping temporarily unavailable instances, checked per choice, optional
+     */
+    @Builder
+    private ZoneAwareRouter (Supplier<RegistrySnapshot> snapshots, String zoneKey, String zone,
+                             String callerGroup, Predicate<Instance> healthy, Predicate<Instance> available
+    ) {
+        this.snapshots = Objects.requireNonNull(snapshots, "snapshots");
+        this.zoneKey = zoneKey != null
+                       ? zoneKey
+                       : "zone";
+        this.zone = zone;
+        this.callerGroup = callerGroup;
+        this.healthy = healthy != null
+                       ? healthy
+                       : it -> true;
+        this.available = available;
+        routes = new Routes(RegistrySnapshot.EMPTY);
+    }
+
+    /**
+     * Chooses an instance of the group, preferring caller's zone.
+     *
+     * @param group requested instance group name
+     *
+     * @return chosen instance or {@code null} if group has no healthy instances
+     */
+    public Instance choose (String group) {
+        Route route = route(group);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return available != null
+               ? route.choose(random, available)
+               : route.choose(random);
+    }
+
+    Route route (String group) {
+        RegistrySnapshot snapshot = snapshots.get();
+        Routes current = routes;
+        if (current.snapshot != snapshot) {
+            current = new Routes(snapshot);
+            routes = current;
+        }
+        return current.get(group);
+    }
+
+    private String zoneOf (Instance instance) {
+        Object value = instance.getMeta()
+                .map(it -> it.get(zoneKey))
+                .orElse(null);
+
+        return value != null
+               ? value.toString()
+               : null;
+    }
+
+    private Route compute (RegistrySnapshot snapshot, String group) {
+        List<Instance> local = new ArrayList<>();
+        List<Instance> remote = new ArrayList<>();
+        Set<String> zones = new HashSet<>();
+        for (Instance instance : snapshot.group(group)) {
+            if (!healthy.test(instance)) {
+                continue;
+            }
+            String instanceZone = zoneOf(instance);
+            if (instanceZone != null) {
+                zones.add(instanceZone);
+            }
+            if (zone != null && zone.equals(instanceZone)) {
+                local.add(instance);
+            } else {
+                remote.add(instance);
+            }
+        }
+
+        int total = local.size() + remote.size();
+        double localProbability;
+        if (local.isEmpty()) {
+            localProbability = 0.D;
+        } else if (remote.isEmpty()) {
+            localProbability = 1.D;
+        } else {
+            double localShare = (double) local.size() / total;
+            double fairShare = fairShare(snapshot, zones.size());
+            localProbability = localShare >= fairShare
+                               ? 1.D
+                               : localShare / fairShare;
+        }
+        return new Route(local.toArray(new Instance[0]), remote.toArray(new Instance[0]), localProbability);
+    }
+
+    private double fairShare (RegistrySnapshot snapshot, int zones) {
+        List<Instance> callers = callerGroup != null
+                                 ? snapshot.group(callerGroup)
+                                 : null;
+
+        if (callers != null && !callers.isEmpty()) {
+            long local = callers.stream()
+                    .map(this::zoneOf)
+                    .filter(it -> zone.equals(it))
+                    .count();
+
+            if (local > 0) {
+                return (double) local / callers.size();
+            }
+        }
+        return 1.D / Math.max(zones, 1);
+    }
+
+    static final class Route {
+
+        private final Instance[] local;
+
+        private final Instance[] remote;
+
+        private final double localProbability;
+
+        Route (Instance[] local, Instance[] remote, double localProbability) {
+            this.local = local;
+            this.remote = remote;
+            this.localProbability = localProbability;
+        }
+
+        double getLocalProbability () {
+            return localProbability;
+        }
+
+        Instance choose (ThreadLocalRandom random) {
+            if (local.length > 0 && (localProbability >= 1.D || random.nextDouble() < localProbability)) {
+                return local[random.nextInt(local.length)];
+            }
+            if (remote.length > 0) {
+                return remote[random.nextInt(remote.length)];
+            }
+            return null;
+        }
+
+        /**
+         * Chooses an available instance. A couple of random attempts are enough while most instances
+         * are available, otherwise instances are scanned in the preferred order. If there are
+         * no available instances at all, an unavailable one is better than failing the call.
+         */
+        Instance choose (ThreadLocalRandom random, Predicate<Instance> available) {
+            Instance first = choose(random);
+            if (first == null || available.test(first)) {
+                return first;
+            }
+            Instance second = choose(random);
+            if (available.test(second)) {
+                return second;
+            }
+            Instance found = localProbability > 0
+                             ? scan(local, random, available)
+                             : null;
+            if (found == null) {
+                found = scan(remote, random, available);
+            }
+            if (found == null && localProbability <= 0) {
+                found = scan(local, random, available);
+            }
+            return found != null
+                   ? found
+                   : first;
+        }
+
+        private static Instance scan (Instance[] instances, ThreadLocalRandom random, Predicate<Instance> available) {
+            if (instances.length == 0) {
+                return null;
+            }
+            int start = random.nextInt(instances.length);
+            for (int i = 0; i < instances.length; i++) {
+                Instance instance = instances[(start + i) % instances.length];
+                if (available.test(instance)) {
+                    return instance;
+                }
+            }
+            return null;
+        }
+    }
+
+    private final class Routes {
+
+        private final RegistrySnapshot snapshot;
+
+        private final Map<String, Route> groups;
+
+        Routes (RegistrySnapshot snapshot) {
+            this.snapshot = snapshot;
+            groups = new ConcurrentHashMap<>();
+        }
+
+        Route get (String group) {
+            Route route = groups.get(group);
+            return route != null
+                   ? route
+                   : groups.computeIfAbsent(group, it -> compute(snapshot, it));
+        }
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2017 Artem Labazin <xxlabaza@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.xxlabaza.luntic.client;
+
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Java 21+ version of client's thread factories, which creates virtual threads.
+ * <p/>
+ * Heartbeats, background refreshes and fan-out lookups spend nearly all their time blocked
+ * on network I/O, so they don't need platform threads. Blocking sections of the client use
+ * {@link java.util.concurrent.locks.Lock}s and futures instead of monitors, so virtual threads
+ * aren't pinned to carriers during requests.
+ *
+ * @author Artem Labazin <xxlabaza@gmail.com>
+ * @since Oct 18, 2026
+ */
+final class Threads {
+
+    /**
+     * Returns factory of virtual threads with names like {@code name-1}.
+     *
+     * @param name threads name prefix
+     *
+     * @return thread factory
+     */
+    static ThreadFactory factory (String name) {
+        return Thread.ofVirtual()
+                .name(name + '-', 1)
+                .factory();
+    }
+
+    private Threads () {
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright 2017 Artem Labazin <xxlabaza@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.xxlabaza.luntic.client;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ *
+ * @author Artem Labazin <xxlabaza@gmail.com>
+ * @since Oct 18, 2026
+ */
+public class BulkFetcherTest {
+
+    private BulkFetcher fetcher;
+
+    @After
+    public void after () {
+        if (fetcher != null) {
+            fetcher.close();
+        }
+    }
+
+    @Test
+    public void servesSnapshotFirst () {
+        List<Instance> local = instances(3);
+        Instance remote = instances(1).get(0);
+        AtomicInteger requests = new AtomicInteger();
+        fetcher = new BulkFetcher(4, (group, id) -> {
+            requests.incrementAndGet();
+            return remote.getId().equals(id)
+                   ? remote
+                   : null;
+        });
+
+        List<String> ids = Arrays.asList(remote.getId(), local.get(0).getId(), "unknown",
+                                         local.get(1).getId(), local.get(0).getId());
+        BulkLookup result = fetcher.lookup(snapshot(local), "backend", ids, SECONDS.toNanos(5));
+
+        assertTrue(result.isComplete());
+        assertEquals(2, requests.get());
+        assertEquals(Arrays.asList(remote.getId(), local.get(0).getId(), local.get(1).getId()),
+                     new ArrayList<>(result.getInstances().keySet()));
+        assertSame(local.get(1), result.getInstances().get(local.get(1).getId()));
+        assertEquals(Collections.singleton("unknown"), result.getMissing());
+    }
+
+    @Test
+    public void limitsConcurrency () {
+        AtomicInteger current = new AtomicInteger();
+        AtomicInteger max = new AtomicInteger();
+        fetcher = new BulkFetcher(4, (group, id) -> {
+            max.accumulateAndGet(current.incrementAndGet(), Math::max);
+            sleep(5);
+            current.decrementAndGet();
+            return null;
+        });
+
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            ids.add(UUID.randomUUID().toString());
+        }
+        BulkLookup result = fetcher.lookup(snapshot(Collections.emptyList()), "backend", ids, SECONDS.toNanos(10));
+
+        assertTrue(result.isComplete());
+        assertEquals(200, result.getMissing().size());
+        assertEquals(4, max.get());
+    }
+
+    @Test
+    public void partialResultsOnDeadline () {
+        Instance fast = instances(1).get(0);
+        fetcher = new BulkFetcher(2, (group, id) -> {
+            if (!fast.getId().equals(id)) {
+                sleep(5_000);
+            }
+            return fast;
+        });
+
+        long start = System.nanoTime();
+        BulkLookup result = fetcher.lookup(snapshot(Collections.emptyList()), "backend",
+                                           Arrays.asList(fast.getId(), "slow-1", "slow-2", "slow-3"),
+                                           MILLISECONDS.toNanos(200));
+
+        assertTrue(System.nanoTime() - start < SECONDS.toNanos(2));
+        assertFalse(result.isComplete());
+        assertEquals(Collections.singleton(fast.getId()), result.getInstances().keySet());
+        assertEquals(3, result.getErrors().size());
+        result.getErrors().values().forEach(it -> assertTrue(it instanceof TimeoutException));
+    }
+
+    @Test
+    public void perIdErrors () {
+        fetcher = new BulkFetcher(2, (group, id) -> {
+            throw new DiscoveryException("status 500 reading Api#getByGroupAndId(String,String)");
+        });
+
+        BulkLookup result = fetcher.lookup(snapshot(Collections.emptyList()), "backend",
+                                           Arrays.asList("one", "two"), SECONDS.toNanos(5));
+
+        assertEquals(2, result.getErrors().size());
+        assertTrue(result.getErrors().get("one") instanceof DiscoveryException);
+        assertTrue(result.getInstances().isEmpty());
+        assertTrue(result.getMissing().isEmpty());
+    }
+
+    private static void sleep (long millis) {
+        try {
+            MILLISECONDS.sleep(millis);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static RegistrySnapshot snapshot (List<Instance> instances) {
+        return new RegistrySnapshot(1, Collections.singletonMap("backend", instances));
+    }
+
+    private static List<Instance> instances (int count) {
+        ZonedDateTime now = ZonedDateTime.now();
+        List<Instance> result = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            result.add(Instance.builder()
+                    .id(UUID.randomUUID().toString())
+                    .group("backend")
+                    .created(now)
+                    .modified(now)
+                    .meta(Optional.empty())
+                    .build());
+        }
+        return result;
+    }
+}
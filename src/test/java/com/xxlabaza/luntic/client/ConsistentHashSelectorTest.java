@@ -0,0 +1,248 @@
+/*
+ * Copyright 2017 Artem Labazin <xxlabaza@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.xxlabaza.luntic.client;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.Test;
+
+/**
+ *
+ * @author Artem Labazin <xxlabaza@gmail.com>
+ * @since Oct 18, 2026
+ */
+public class ConsistentHashSelectorTest {
+
+    private static final int KEYS = 100_000;
+
+    /**
+     * The share of keys of an instance with {@code V} ring points deviates from its expected value
+     * by about {@code 1 / sqrt(V)} (relative standard deviation), 7.9% for the default 160 points.
+     * The share is a sum of {@code V} random arcs, so its distribution is skewed and its tails are
+     * heavier than normal ones. Bounds are six deviations wide, 10 000 simulated instance shares never
+     * came closer than 4.5 deviations.
+     */
+    private static final double TOLERANCE = 6 / Math.sqrt(ConsistentHashSelector.DEFAULT_VIRTUAL_NODES);
+
+    @Test
+    public void evenDistribution () {
+        List<Instance> instances = instances(10, null);
+        ConsistentHashSelector selector = selector(snapshot(instances), null);
+
+        Map<String, Integer> counts = count(selector);
+        assertEquals(10, counts.size());
+        double mean = KEYS / 10.D;
+        counts.values().forEach(it -> assertEquals(mean, it, mean * TOLERANCE));
+
+        // the aggregate is much more stable than single instances: the spread of 10 shares is about
+        // one deviation, 1 000 simulated rings never exceeded 1.9 of them
+        double variance = counts.values().stream()
+                .mapToDouble(it -> (it - mean) * (it - mean))
+                .sum() / (counts.size() - 1);
+        assertTrue(Math.sqrt(variance) / mean < 2.5 / Math.sqrt(ConsistentHashSelector.DEFAULT_VIRTUAL_NODES));
+    }
+
+    @Test
+    public void minimalMovementOnMembershipChange () {
+        List<Instance> instances = instances(10, null);
+        AtomicReference<RegistrySnapshot> current = new AtomicReference<>(snapshot(instances));
+        ConsistentHashSelector selector = selector(current, null);
+
+        String[] before = owners(selector);
+
+        List<Instance> grown = new ArrayList<>(instances);
+        Instance added = instances(1, null).get(0);
+        grown.add(added);
+        current.set(snapshot(grown));
+
+        String[] after = owners(selector);
+        int moved = 0;
+        for (int i = 0; i < KEYS; i++) {
+            if (!before[i].equals(after[i])) {
+                // keys move only to the new instance
+                assertEquals(added.getId(), after[i]);
+                moved++;
+            }
+        }
+        assertEquals(KEYS / 11.D, moved, KEYS / 11.D * TOLERANCE);
+
+        List<Instance> shrunk = new ArrayList<>(grown);
+        shrunk.remove(3);
+        current.set(snapshot(shrunk));
+
+        String[] removed = owners(selector);
+        for (int i = 0; i < KEYS; i++) {
+            if (!after[i].equals(removed[i])) {
+                assertEquals(grown.get(3).getId(), after[i]);
+            }
+        }
+    }
+
+    @Test
+    public void incrementalRebuildEqualsFullBuild () {
+        List<Instance> instances = instances(20, "2");
+        AtomicReference<RegistrySnapshot> current = new AtomicReference<>(snapshot(instances));
+        ConsistentHashSelector incremental = selector(current, "weight");
+        incremental.ring("backend");
+
+        List<Instance> changed = new ArrayList<>(instances.subList(5, 20));
+        changed.addAll(instances(5, "3"));
+        current.set(snapshot(changed));
+
+        ConsistentHashSelector full = selector(snapshot(changed), "weight");
+        assertArrayEquals(full.ring("backend").points(), incremental.ring("backend").points());
+        for (int i = 0; i < 10_000; i++) {
+            assertSame(full.select("backend", "key-" + i), incremental.select("backend", "key-" + i));
+        }
+    }
+
+    @Test
+    public void weights () {
+        List<Instance> instances = new ArrayList<>();
+        instances.addAll(instances(1, "1"));
+        instances.addAll(instances(1, 3));
+        instances.addAll(instances(1, "0"));
+
+        // with 1000 points per unit of weight, the ratio deviates by about sqrt(1/1000 + 1/3000) = 3.7%,
+        // so the bounds are more than five deviations wide
+        RegistrySnapshot snapshot = snapshot(instances);
+        ConsistentHashSelector selector = ConsistentHashSelector.builder()
+                .snapshots(() -> snapshot)
+                .weightKey("weight")
+                .virtualNodes(1_000)
+                .build();
+        Map<String, Integer> counts = count(selector);
+
+        assertEquals(2, counts.size());
+        double ratio = (double) counts.get(instances.get(1).getId()) / counts.get(instances.get(0).getId());
+        assertTrue(ratio > 2.4 && ratio < 3.6);
+    }
+
+    @Test
+    public void oversizedWeightsAreClamped () {
+        List<Instance> instances = new ArrayList<>();
+        instances.addAll(instances(1, 1_000_000));
+        instances.addAll(instances(1, "1"));
+
+        ConsistentHashSelector selector = selector(snapshot(instances), "weight");
+
+        int expected = (int) (ConsistentHashSelector.MAX_WEIGHT + 1) * ConsistentHashSelector.DEFAULT_VIRTUAL_NODES;
+        assertEquals(expected, selector.ring("backend").size());
+    }
+
+    @Test
+    public void sortKeepsOwnersWithPoints () {
+        Random random = new Random(42);
+        for (int size : new int[] { 0, 1, 2, 15, 16, 17, 1_000, 100_000 }) {
+            long[] points = new long[size];
+            int[] owners = new int[size];
+            for (int i = 0; i < size; i++) {
+                // a narrow range produces duplicates as well
+                points[i] = size < 1_000
+                            ? random.nextInt(10)
+                            : random.nextLong();
+                owners[i] = i;
+            }
+            long[] original = points.clone();
+            ConsistentHashSelector.Ring.sort(points, owners, 0, size);
+
+            long[] expected = original.clone();
+            Arrays.sort(expected);
+            assertArrayEquals(expected, points);
+            for (int i = 0; i < size; i++) {
+                assertEquals(original[owners[i]], points[i]);
+            }
+        }
+    }
+
+    @Test
+    public void ringIsReusedForSameSnapshot () {
+        ConsistentHashSelector selector = selector(snapshot(instances(3, null)), null);
+        assertSame(selector.ring("backend"), selector.ring("backend"));
+        assertSame(selector.select("backend", 42L), selector.select("backend", 42L));
+    }
+
+    @Test
+    public void unknownGroup () {
+        ConsistentHashSelector selector = selector(snapshot(instances(3, null)), null);
+        assertNull(selector.select("unknown", "key"));
+    }
+
+    private static Map<String, Integer> count (ConsistentHashSelector selector) {
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < KEYS; i++) {
+            counts.merge(selector.select("backend", "key-" + i).getId(), 1, Integer::sum);
+        }
+        return counts;
+    }
+
+    private static String[] owners (ConsistentHashSelector selector) {
+        String[] result = new String[KEYS];
+        for (int i = 0; i < KEYS; i++) {
+            result[i] = selector.select("backend", "key-" + i).getId();
+        }
+        return result;
+    }
+
+    private static ConsistentHashSelector selector (RegistrySnapshot snapshot, String weightKey) {
+        return selector(new AtomicReference<>(snapshot), weightKey);
+    }
+
+    private static ConsistentHashSelector selector (AtomicReference<RegistrySnapshot> snapshot, String weightKey) {
+        return ConsistentHashSelector.builder()
+                .snapshots(snapshot::get)
+                .weightKey(weightKey)
+                .build();
+    }
+
+    private static RegistrySnapshot snapshot (List<Instance> instances) {
+        return new RegistrySnapshot(1, Collections.singletonMap("backend", instances));
+    }
+
+    private static List<Instance> instances (int count, Object weight) {
+        ZonedDateTime now = ZonedDateTime.now();
+        List<Instance> result = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Map<String, Object> meta = weight != null
+                                       ? Collections.singletonMap("weight", weight)
+                                       : Collections.emptyMap();
+            result.add(Instance.builder()
+                    .id(UUID.randomUUID().toString())
+                    .group("backend")
+                    .created(now)
+                    .modified(now)
+                    .meta(Optional.of(meta))
+                    .build());
+        }
+        return result;
+    }
+}
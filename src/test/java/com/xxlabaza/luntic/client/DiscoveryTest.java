@@ -17,22 +17,49 @@
 package com.xxlabaza.luntic.client;
 
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import static java.util.concurrent.TimeUnit.SECONDS;
 import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toSet;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.DEFINED_PORT;
 
+import feign.Response;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.IntStream;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import lombok.Data;
+import okhttp3.OkHttpClient;
 import org.junit.After;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -57,6 +84,12 @@ public class DiscoveryTest {
 
     @After
     public void after () {
+        server.failUpdates(false);
+        server.failDeletes(false);
+        server.slowReads(0);
+        server.slowUpdates(0);
+        server.slowCreates(0);
+        server.turnOffCleaner();
         server.clear();
     }
 
@@ -75,6 +108,42 @@ public class DiscoveryTest {
         assertFalse(instance.getMeta().isPresent());
     }
 
+    @Test
+    public void asyncRegistration () throws Exception {
+        loadList("one", 2);
+
+        Discovery discovery = Discovery.create()
+                .url("localhost:8080")
+                .group("popa")
+                .registerAsync();
+
+        assertEquals(2, discovery.group("one").size());
+
+        assertSame(discovery, discovery.registration().get(5, SECONDS));
+        assertTrue(discovery.isRegistered());
+        assertNotNull(server.find(discovery.getGroup(), discovery.getId()));
+        assertNotNull(discovery.me());
+    }
+
+    @Test
+    public void pendingAsyncRegistration () {
+        Discovery discovery = Discovery.create()
+                .url("localhost:1")
+                .group("popa")
+                .registerAsync();
+
+        assertFalse(discovery.isRegistered());
+        try {
+            discovery.me();
+            fail();
+        } catch (DiscoveryException ex) {
+            assertEquals("Client isn't registered yet", ex.getMessage());
+        }
+
+        discovery.deregister();
+        assertTrue(discovery.registration().isCompletedExceptionally());
+    }
+
     @Test
     public void heartbeat () throws InterruptedException {
         loadList("popa", 2);
@@ -101,9 +170,86 @@ public class DiscoveryTest {
         assertEquals(1, group.size());
         assertEquals(discovery.getId(), group.get(0).getId());
 
+        discovery.deregister();
         server.turnOffCleaner();
     }
 
+    @Test
+    public void reRegistrationAfterExpiration () throws InterruptedException {
+        server.scheduleCleaner(2);
+
+        CountDownLatch lost = new CountDownLatch(1);
+        CountDownLatch restored = new CountDownLatch(1);
+
+        Map<String, Object> meta = new HashMap<>(1, 1.F);
+        meta.put("string", "Hello world");
+
+        Discovery discovery = Discovery.create()
+                .url("localhost:8080")
+                .group("popa")
+                .meta(meta)
+                .registrationListener(new RegistrationListener() {
+
+                    @Override
+                    public void registrationLost (Discovery discovery) {
+                        lost.countDown();
+                    }
+
+                    @Override
+                    public void registrationRestored (Discovery discovery) {
+                        restored.countDown();
+                    }
+                })
+                .register();
+
+        String oldId = discovery.getId();
+        server.clear();
+
+        // heartbeat period is 1 second, so Luntic's 404 must be noticed and fixed within it
+        assertTrue(lost.await(1500, MILLISECONDS));
+        assertTrue(restored.await(500, MILLISECONDS));
+
+        assertNotEquals(oldId, discovery.getId());
+        Instance instance = server.find("popa", discovery.getId());
+        assertNotNull(instance);
+        assertMeta(meta, instance);
+
+        discovery.deregister();
+    }
+
+    @Test
+    public void heartbeatRecoveryAfterOutage () throws InterruptedException {
+        server.scheduleCleaner(2);
+
+        CountDownLatch restored = new CountDownLatch(1);
+        Discovery discovery = Discovery.create()
+                .url("localhost:8080")
+                .group("popa")
+                .registrationListener(new RegistrationListener() {
+
+                    @Override
+                    public void registrationRestored (Discovery discovery) {
+                        restored.countDown();
+                    }
+                })
+                .register();
+
+        String oldId = discovery.getId();
+
+        server.failUpdates(true);
+        for (int i = 0; i < 50 && server.find("popa", oldId) != null; i++) {
+            MILLISECONDS.sleep(100);
+        }
+        assertNull(server.find("popa", oldId));
+        server.failUpdates(false);
+
+        // backoff is capped by heartbeat period, plus one round of re-registration
+        assertTrue(restored.await(1500, MILLISECONDS));
+        assertNotNull(server.find("popa", discovery.getId()));
+
+        discovery.deregister();
+    }
+
     @Test
     public void registrationWithMeta () {
         Map<String, Object> expected = new HashMap<>(4, 1.F);
@@ -226,6 +372,634 @@ public class DiscoveryTest {
         assertEquals("popa", group3.get(0).getGroup());
     }
 
+    @Test
+    public void forEachInstance () {
+        loadList("one", 3);
+        loadList("two", 2);
+
+        Discovery discovery = Discovery.create()
+                .url("localhost:8080")
+                .group("popa")
+                .register();
+
+        Map<String, List<Instance>> expected = discovery.all();
+
+        Map<String, List<Instance>> result = new HashMap<>();
+        discovery.forEachInstance(it -> result.computeIfAbsent(it.getGroup(), key -> new ArrayList<>()).add(it));
+
+        assertEquals(expected, result);
+    }
+
+    @Test
+    public void typedGroup () {
+        for (WireFormat format : WireFormat.values()) {
+            Map<String, Object> meta = new HashMap<>(3, 1.F);
+            meta.put("number", 42);
+            meta.put("string", "Hello world");
+            meta.put("unknown", true);
+
+            Discovery discovery = Discovery.create()
+                    .url("localhost:8080")
+                    .group("popa")
+                    .meta(meta)
+                    .format(format)
+                    .register();
+
+            List<TypedInstance<TypedMeta>> instances = discovery.group("popa", TypedMeta.class);
+            assertEquals(1, instances.size());
+            assertEquals(discovery.getId(), instances.get(0).getId());
+            assertEquals(42, instances.get(0).getMeta().getNumber());
+            assertEquals("Hello world", instances.get(0).getMeta().getString());
+
+            assertTrue(discovery.group("unknown", TypedMeta.class).isEmpty());
+            discovery.deregister();
+        }
+    }
+
+    @Test
+    public void heartbeatsUnderSlowReads () throws Exception {
+        server.scheduleCleaner(2);
+        server.slowReads(3_000);
+
+        Discovery discovery = Discovery.create()
+                .url("localhost:8080")
+                .group("popa")
+                .refreshPeriod(10, MILLISECONDS)
+                .readLane(2, 10, SECONDS)
+                .register();
+
+        // background refreshes and these readers keep the read lane busy and saturated
+        AtomicBoolean reading = new AtomicBoolean(true);
+        ExecutorService readers = Executors.newFixedThreadPool(4);
+        for (int i = 0; i < 4; i++) {
+            readers.execute(() -> {
+                while (reading.get()) {
+                    try {
+                        discovery.all();
+                    } catch (RuntimeException ex) {
+                        // reads fail after deregistration
+                    }
+                }
+            });
+        }
+
+        // heartbeats are sent every second, the cleaner removes instances after 2 seconds of silence
+        for (int i = 0; i < 5; i++) {
+            SECONDS.sleep(1);
+            Instance instance = server.find("popa", discovery.getId());
+            assertNotNull(instance);
+            assertTrue(Duration.between(instance.getModified(), ZonedDateTime.now()).toMillis() < 1_800);
+        }
+
+        reading.set(false);
+        readers.shutdownNow();
+        discovery.deregister();
+    }
+
+    @Test
+    public void readLaneHoldsSlotUntilBodyIsRead () throws Exception {
+        server.slowReads(2_000);
+
+        Discovery discovery = Discovery.create()
+                .url("localhost:8080")
+                .group("popa")
+                .readLane(1, 200, MILLISECONDS)
+                .register();
+
+        // the server sends headers at once, the only slot stays taken while the body is transferred
+        CompletableFuture<Map<String, List<Instance>>> first = CompletableFuture.supplyAsync(discovery::all);
+        MILLISECONDS.sleep(500);
+
+        long start = System.nanoTime();
+        try {
+            discovery.all();
+            fail("Read must be rejected while another one transfers its body");
+        } catch (RuntimeException ex) {
+            Throwable cause = ex;
+            while (cause != null && !(cause instanceof BulkLane.RejectedException)) {
+                cause = cause.getCause();
+            }
+            assertNotNull(cause);
+        }
+        // rejected read isn't retried, otherwise it waits for a slot 5 times
+        assertTrue(NANOSECONDS.toMillis(System.nanoTime() - start) < 1_000);
+
+        assertTrue(first.get(5, SECONDS).containsKey("popa"));
+        server.slowReads(0);
+        assertTrue(discovery.all().containsKey("popa"));
+        discovery.deregister();
+    }
+
+    @Test
+    public void bulkLookup () {
+        loadList("one", 5);
+
+        Discovery discovery = Discovery.create()
+                .url("localhost:8080")
+                .group("popa")
+                .bulkLookup(2, 5, SECONDS)
+                .register();
+
+        List<String> ids = discovery.group("one").stream()
+                .map(Instance::getId)
+                .collect(toList());
+        discovery.refresh();
+        loadList("two", 1);
+        ids.add(discovery.group("two").get(0).getId());
+        ids.add(UUID.randomUUID().toString());
+
+        BulkLookup result = discovery.instances("one", ids.subList(0, 5));
+        assertTrue(result.isComplete());
+        assertEquals(ids.subList(0, 5), new ArrayList<>(result.getInstances().keySet()));
+
+        // the instance of group "two" isn't in the snapshot yet, the random id doesn't exist
+        result = discovery.instances("two", ids.subList(4, 7));
+        assertTrue(result.isComplete());
+        assertEquals(Collections.singleton(ids.get(5)), result.getInstances().keySet());
+        assertEquals(new HashSet<>(Arrays.asList(ids.get(4), ids.get(6))), result.getMissing());
+
+        discovery.deregister();
+    }
+
+    @Test
+    public void directApi () {
+        loadList("one", 3);
+        for (WireFormat format : WireFormat.values()) {
+            Map<String, Object> meta = new HashMap<>(2, 1.F);
+            meta.put("number", 42);
+            meta.put("string", "Hello world");
+
+            Discovery direct = Discovery.create()
+                    .url("localhost:8080")
+                    .group("popa")
+                    .meta(meta)
+                    .format(format)
+                    .directApi(true)
+                    .register();
+            Discovery feign = Discovery.create()
+                    .url("localhost:8080")
+                    .format(format)
+                    .register();
+
+            assertEquals(feign.all(), direct.all());
+            assertEquals(feign.group("one"), direct.group("one"));
+            assertEquals(feign.group("popa"), direct.group("popa"));
+            assertTrue(direct.group("unknown").isEmpty());
+            assertNull(direct.instance("one", UUID.randomUUID().toString()));
+            assertEquals(42, direct.group("popa", TypedMeta.class).get(0).getMeta().getNumber());
+
+            Instance me = direct.me();
+            assertEquals(feign.instance("popa", direct.getId()), me);
+            assertEquals("Hello world", me.getMeta().get().get("string"));
+
+            Map<String, Object> newMeta = new HashMap<>(1, 1.F);
+            newMeta.put("updated", true);
+            Instance updated = direct.update(newMeta);
+            assertEquals(true, updated.getMeta().get().get("updated"));
+            assertEquals(updated, feign.instance("popa", direct.getId()));
+
+            String id = direct.getId();
+            direct.deregister();
+            feign.deregister();
+            assertNull(server.find("popa", id));
+        }
+    }
+
+    @Test
+    public void directApiErrors () {
+        Discovery discovery = Discovery.create()
+                .url("localhost:8080")
+                .group("popa")
+                .directApi(true)
+                .register();
+
+        server.failUpdates(true);
+        try {
+            discovery.update();
+            fail();
+        } catch (DiscoveryException ex) {
+            assertTrue(ex.getMessage().startsWith("status 503 reading Api#update(String,String)"));
+        }
+        server.failUpdates(false);
+        discovery.deregister();
+    }
+
+    @Test
+    public void offHeapRegistry () {
+        loadList("one", 3);
+        loadList("two", 2);
+
+        Discovery discovery = Discovery.create()
+                .url("localhost:8080")
+                .group("popa")
+                .register();
+
+        OffHeapRegistry registry = discovery.allOffHeap();
+        assertEquals(6, registry.size());
+        assertEquals(3, registry.count("one"));
+
+        OffHeapRegistry.InstanceView view = registry.view();
+        assertTrue(registry.find("popa", discovery.getId(), view));
+        assertEquals(discovery.me(), view.toInstance());
+        assertFalse(registry.find("popa", "123", view));
+    }
+
+    @Test
+    public void parallelDecoding () {
+        for (int i = 0; i < 10; i++) {
+            loadList("group-" + i, 60);
+        }
+
+        List<String> decoded = new CopyOnWriteArrayList<>();
+        Discovery discovery = Discovery.create()
+                .url("localhost:8080")
+                .group("popa")
+                .parallelDecoding(ForkJoinPool.commonPool())
+                .timingListener(new TimingListener() {
+
+                    @Override
+                    public void onRequest (RequestTiming timing) {
+                    }
+
+                    @Override
+                    public void onDecode (String type, long durationNanos) {
+                        decoded.add(type);
+                    }
+                })
+                .register();
+
+        Map<String, List<Instance>> all = discovery.all();
+        assertEquals(11, all.size());
+        assertEquals(60, all.get("group-3").size());
+        assertEquals(all, discovery.refresh().all());
+        assertEquals(2, decoded.size());
+        assertTrue(decoded.get(0).startsWith("java.util.Map"));
+    }
+
+    @Test
+    public void livenessFilter () {
+        server.scheduleCleaner(30);
+
+        ZonedDateTime stale = ZonedDateTime.now().minusHours(1);
+        Map<String, List<Instance>> map = new HashMap<>(1, 1.F);
+        map.put("popa", new ArrayList<>(Arrays.asList(Instance.builder()
+                .id(UUID.randomUUID().toString())
+                .group("popa")
+                .created(stale)
+                .modified(stale)
+                .build())));
+        server.load(map);
+
+        Discovery discovery = Discovery.create()
+                .url("localhost:8080")
+                .group("popa")
+                .livenessFilter(LivenessMode.DROP, 5, SECONDS)
+                .register();
+
+        List<Instance> instances = discovery.group();
+        assertEquals(1, instances.size());
+        assertEquals(discovery.getId(), instances.get(0).getId());
+        assertEquals(1, discovery.all().get("popa").size());
+        assertEquals(1, discovery.refresh().group("popa").size());
+
+        Discovery unfiltered = Discovery.create()
+                .url("localhost:8080")
+                .group("popa")
+                .register();
+
+        assertEquals(3, unfiltered.group().size());
+
+        discovery.deregister();
+        unfiltered.deregister();
+    }
+
+    @Test
+    public void smileFormat () {
+        loadList("one", 3);
+
+        Map<String, Object> meta = new HashMap<>(2, 1.F);
+        meta.put("number", 1);
+        meta.put("string", "Hello world");
+
+        Discovery discovery = Discovery.create()
+                .url("localhost:8080")
+                .group("popa")
+                .meta(meta)
+                .format(WireFormat.SMILE)
+                .register();
+
+        assertMeta(meta, discovery.me());
+        assertEquals(3, discovery.group("one").size());
+        assertNull(discovery.instance("popa", "123"));
+
+        Map<String, List<Instance>> all = discovery.all();
+        assertEquals(2, all.size());
+
+        List<Instance> streamed = new ArrayList<>();
+        discovery.forEachInstance(streamed::add);
+        assertEquals(4, streamed.size());
+
+        Response response = Api.connect("localhost:8080", new Codec(WireFormat.SMILE), new OkHttpClient()).streamAll();
+        assertTrue(response.headers().get("Content-Type").iterator().next()
+                .startsWith(WireFormat.SMILE.getMediaType()));
+        response.close();
+
+        response = Api.connect("localhost:8080", new Codec(WireFormat.JSON), new OkHttpClient()).streamAll();
+        assertTrue(response.headers().get("Content-Type").iterator().next()
+                .startsWith(WireFormat.JSON.getMediaType()));
+        response.close();
+    }
+
+    @Test
+    public void snapshot () throws InterruptedException {
+        loadList("one", 3);
+        loadList("two", 2);
+
+        Discovery discovery = Discovery.create()
+                .url("localhost:8080")
+                .group("popa")
+                .register();
+
+        RegistrySnapshot empty = discovery.snapshot();
+        assertEquals(0, empty.getVersion());
+        assertTrue(empty.all().isEmpty());
+
+        RegistrySnapshot snapshot = discovery.refresh();
+        assertSame(snapshot, discovery.snapshot());
+        assertEquals(1, snapshot.getVersion());
+        assertEquals(6, snapshot.size());
+        assertEquals(discovery.all(), snapshot.all());
+        assertEquals(3, snapshot.group("one").size());
+        assertTrue(snapshot.group("unknown").isEmpty());
+        assertEquals(discovery.getId(), snapshot.instance("popa", discovery.getId()).getId());
+        assertNull(snapshot.instance("popa", "123"));
+
+        MILLISECONDS.sleep(10);
+        assertTrue(snapshot.getAge().toMillis() >= 10);
+    }
+
+    @Test
+    public void registryListener () {
+        Discovery discovery = Discovery.create()
+                .url("localhost:8080")
+                .group("popa")
+                .register();
+
+        List<InstanceChange> received = new ArrayList<>();
+        discovery.addRegistryListener((previous, current, changes) -> received.addAll(changes));
+
+        discovery.refresh();
+        assertEquals(1, received.size());
+        assertEquals(InstanceChange.Type.ADDED, received.get(0).getType());
+        assertEquals(discovery.getId(), received.get(0).getId());
+
+        received.clear();
+        discovery.update(Collections.singletonMap("key", "value"));
+        discovery.refresh();
+        assertEquals(1, received.size());
+        assertEquals(InstanceChange.Type.UPDATED, received.get(0).getType());
+
+        received.clear();
+        discovery.refresh();
+        assertTrue(received.isEmpty());
+    }
+
+    @Test
+    public void rateLimit () {
+        Discovery discovery = Discovery.create()
+                .url("localhost:8080")
+                .group("popa")
+                .startupJitter(50, MILLISECONDS)
+                .heartbeatJitter(500, MILLISECONDS)
+                .register();
+
+        Discovery.rateLimit(10, 1);
+        try {
+            long start = System.nanoTime();
+            for (int i = 0; i < 4; i++) {
+                discovery.group();
+            }
+            assertTrue(System.nanoTime() - start >= MILLISECONDS.toNanos(250));
+        } finally {
+            Discovery.rateLimit(0, 0);
+            discovery.deregister();
+        }
+    }
+
+    @Test
+    public void registrationWaitsForRateLimit () {
+        List<Discovery> clients = new ArrayList<>();
+        Discovery.rateLimit(2, 1);
+        try {
+            long start = System.nanoTime();
+            for (int i = 0; i < 3; i++) {
+                clients.add(Discovery.create()
+                        .url("localhost:8080")
+                        .group("popa")
+                        .register());
+            }
+            // the first registration takes the only token, the others wait for new ones
+            assertTrue(System.nanoTime() - start >= MILLISECONDS.toNanos(900));
+        } finally {
+            Discovery.rateLimit(0, 0);
+            clients.forEach(Discovery::deregister);
+        }
+    }
+
+    @Test
+    public void trackedGroups () {
+        loadList("one", 3);
+        loadList("two", 2);
+        loadList("three", 4);
+
+        Discovery discovery = Discovery.create()
+                .url("localhost:8080")
+                .group("popa")
+                .register();
+
+        discovery.track(new HashSet<>(Arrays.asList("one", "two", "unknown")));
+        // the first refreshes measure both fetching strategies
+        for (int i = 0; i < 5; i++) {
+            RegistrySnapshot snapshot = discovery.refresh();
+            assertEquals(new HashSet<>(Arrays.asList("one", "two")), snapshot.groups());
+            assertEquals(3, snapshot.group("one").size());
+            assertEquals(2, snapshot.group("two").size());
+        }
+
+        discovery.track(null);
+        assertEquals(10, discovery.refresh().size());
+        discovery.deregister();
+    }
+
+    @Test
+    public void backgroundRefresh () throws InterruptedException {
+        Discovery discovery = Discovery.create()
+                .url("localhost:8080")
+                .group("popa")
+                .refreshPeriod(50, MILLISECONDS)
+                .register();
+
+        MILLISECONDS.sleep(500);
+
+        RegistrySnapshot snapshot = discovery.snapshot();
+        assertTrue(snapshot.getVersion() > 1);
+        assertNotNull(snapshot.instance("popa", discovery.getId()));
+
+        discovery.deregister();
+    }
+
+    @Test
+    public void adaptiveRefresh () throws Exception {
+        Discovery discovery = Discovery.create()
+                .url("localhost:8080")
+                .group("popa")
+                .adaptiveRefresh(20, 320, MILLISECONDS)
+                .register();
+
+        assertEquals(0, discovery.refreshStats().getChangeRate(), 0.D);
+        // 20 + 40 + 80 + 160 milliseconds of stable registry
+        MILLISECONDS.sleep(600);
+        assertEquals(320, discovery.refreshStats().getIntervalMillis());
+
+        CompletableFuture<RefreshStats> afterChanges = new CompletableFuture<>();
+        discovery.addRegistryListener((previous, current, changes) -> {
+            afterChanges.complete(discovery.refreshStats());
+        });
+        loadList("adaptive", 3);
+
+        RefreshStats stats = afterChanges.get(1, SECONDS);
+        assertEquals(20, stats.getIntervalMillis());
+        assertTrue(stats.getChangeRate() > 0);
+
+        discovery.deregister();
+    }
+
+    @Test
+    public void timings () {
+        List<RequestTiming> requests = new CopyOnWriteArrayList<>();
+        List<String> decodes = new CopyOnWriteArrayList<>();
+
+        Discovery discovery = Discovery.create()
+                .url("localhost:8080")
+                .group("popa")
+                .timingListener(new TimingListener() {
+
+                    @Override
+                    public void onRequest (RequestTiming timing) {
+                        requests.add(timing);
+                    }
+
+                    @Override
+                    public void onDecode (String type, long durationNanos) {
+                        assertTrue(durationNanos > 0);
+                        decodes.add(type);
+                    }
+                })
+                .register();
+
+        discovery.group();
+
+        assertEquals(2, requests.size());
+        assertEquals("POST", requests.get(0).getMethod());
+        assertEquals(201, requests.get(0).getStatus());
+
+        RequestTiming get = requests.get(1);
+        assertEquals("GET", get.getMethod());
+        assertEquals("http://localhost:8080/popa", get.getUrl());
+        assertEquals(200, get.getStatus());
+        assertFalse(get.isFailed());
+        assertTrue(get.getResponseBytes() > 0);
+        assertTrue(get.getTotalNanos() >= get.getWaitNanos() + get.getResponseNanos());
+
+        assertEquals(1, decodes.size());
+        assertTrue(decodes.get(0).contains(Instance.class.getName()));
+    }
+
+    @Test
+    public void flightRecorderEvents () throws IOException {
+        Path file = Files.createTempFile("luntic", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("com.xxlabaza.luntic.Request");
+            recording.enable("com.xxlabaza.luntic.Decode");
+            recording.start();
+
+            Discovery.create()
+                    .url("localhost:8080")
+                    .group("popa")
+                    .flightRecorder(true)
+                    .register()
+                    .group();
+
+            recording.stop();
+            recording.dump(file);
+
+            List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+            List<RecordedEvent> requests = events.stream()
+                    .filter(it -> "com.xxlabaza.luntic.Request".equals(it.getEventType().getName()))
+                    .collect(toList());
+            List<RecordedEvent> decodes = events.stream()
+                    .filter(it -> "com.xxlabaza.luntic.Decode".equals(it.getEventType().getName()))
+                    .collect(toList());
+
+            assertEquals(2, requests.size());
+            assertEquals(1, decodes.size());
+            // events are begun when operations start, so their durations aren't empty
+            requests.forEach(it -> assertFalse(it.getDuration().isZero()));
+            decodes.forEach(it -> assertFalse(it.getDuration().isZero()));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void instanceCache () throws InterruptedException {
+        AtomicInteger lookups = new AtomicInteger();
+
+        Discovery discovery = Discovery.create()
+                .url("localhost:8080")
+                .group("popa")
+                .instanceCache(100, Duration.ofSeconds(1), Duration.ofMillis(300))
+                .timingListener(new TimingListener() {
+
+                    @Override
+                    public void onRequest (RequestTiming timing) {
+                        if (timing.getMethod().equals("GET")) {
+                            lookups.incrementAndGet();
+                        }
+                    }
+
+                    @Override
+                    public void onDecode (String type, long durationNanos) {
+                    }
+                })
+                .register();
+
+        String id = discovery.getId();
+        for (int i = 0; i < 10; i++) {
+            assertEquals(id, discovery.instance("popa", id).getId());
+            assertNull(discovery.instance("popa", "123"));
+        }
+        assertEquals(2, lookups.get());
+
+        server.clear();
+        assertNotNull(discovery.instance("popa", id));
+
+        MILLISECONDS.sleep(400);
+        assertNull(discovery.instance("popa", "123"));
+        assertEquals(3, lookups.get());
+        assertNotNull(discovery.instance("popa", id));
+        assertEquals(3, lookups.get());
+
+        discovery.invalidate("popa", id);
+        assertNull(discovery.instance("popa", id));
+        assertEquals(4, lookups.get());
+
+        // deregistration drops cached entries, even not expired ones
+        discovery.deregister();
+        assertNull(discovery.instance("popa", id));
+        assertEquals(5, lookups.get());
+    }
+
     @Test
     public void updateModifiedTime () {
         Map<String, Object> meta = new HashMap<>(4, 1.F);
@@ -295,6 +1069,85 @@ public class DiscoveryTest {
         assertNull(server.find(discovery.getGroup(), discovery.getId()));
     }
 
+    @Test
+    public void deregisterWhenDeleteFails () throws InterruptedException {
+        Set<Thread> before = lunticThreads();
+        Discovery discovery = Discovery.create()
+                .url("localhost:8080")
+                .group("popa")
+                .refreshPeriod(10, MILLISECONDS)
+                .register();
+
+        discovery.instances("popa", Arrays.asList(discovery.getId(), "unknown"));
+        assertFalse(lunticThreads().isEmpty());
+
+        server.failDeletes(true);
+        try {
+            discovery.deregister();
+            fail();
+        } catch (DiscoveryException ex) {
+            // Luntic is unavailable, but local resources must be released anyway
+        }
+        assertNoNewThreads(before);
+    }
+
+    @Test
+    public void deregisterDuringSlowHeartbeat () throws InterruptedException {
+        Set<Thread> before = lunticThreads();
+        server.scheduleCleaner(2);
+
+        Discovery discovery = Discovery.create()
+                .url("localhost:8080")
+                .group("popa")
+                .register();
+
+        // heartbeats are sent every second, so the next one is in flight during deregistration
+        server.slowUpdates(3_000);
+        MILLISECONDS.sleep(1_500);
+        discovery.deregister();
+
+        assertNoNewThreads(before);
+    }
+
+    @Test
+    public void deregisterDuringSlowRegistration () throws InterruptedException {
+        server.slowCreates(1_000);
+
+        Discovery discovery = Discovery.create()
+                .url("localhost:8080")
+                .group("popa")
+                .registerAsync();
+
+        // deregistration comes while the create request is in flight, there is no id to delete yet
+        MILLISECONDS.sleep(300);
+        discovery.deregister();
+        assertTrue(discovery.registration().isCompletedExceptionally());
+
+        // the instance, created after deregistration, is deleted once the create request returns
+        SECONDS.sleep(2);
+        List<Instance> instances = Api.connect("localhost:8080", new Codec(WireFormat.JSON), new OkHttpClient())
+                .getByGroup("popa");
+        assertTrue(instances == null || instances.isEmpty());
+    }
+
+    private static Set<Thread> lunticThreads () {
+        return Thread.getAllStackTraces().keySet().stream()
+                .filter(it -> it.getName().startsWith("luntic-"))
+                .collect(toSet());
+    }
+
+    private static void assertNoNewThreads (Set<Thread> before) throws InterruptedException {
+        // interrupted threads need a moment for finishing
+        long deadline = System.nanoTime() + SECONDS.toNanos(10);
+        Set<Thread> leaked;
+        do {
+            MILLISECONDS.sleep(50);
+            leaked = lunticThreads();
+            leaked.removeAll(before);
+        } while (!leaked.isEmpty() && System.nanoTime() < deadline);
+        assertEquals(Collections.emptySet(), leaked);
+    }
+
     private void assertMeta (Map<String, Object> expected, Instance instance) {
         assertTrue(instance.getMeta().isPresent());
 
@@ -323,4 +1176,12 @@ public class DiscoveryTest {
 
         server.load(map);
     }
+
+    @Data
+    static class TypedMeta {
+
+        int number;
+
+        String string;
+    }
 }
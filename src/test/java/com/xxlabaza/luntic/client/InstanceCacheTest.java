@@ -0,0 +1,119 @@
+/*
+ * Copyright 2017 Artem Labazin <xxlabaza@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.xxlabaza.luntic.client;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+
+/**
+ *
+ * @author Artem Labazin <xxlabaza@gmail.com>
+ * @since Oct 18, 2026
+ */
+public class InstanceCacheTest {
+
+    @Test
+    public void concurrentLookupsShareOneRequest () throws Exception {
+        Instance instance = instance();
+        AtomicInteger requests = new AtomicInteger();
+        InstanceCache cache = new InstanceCache(100, Duration.ofMinutes(1), Duration.ofMinutes(1), (group, id) -> {
+            requests.incrementAndGet();
+            try {
+                MILLISECONDS.sleep(200);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            return instance;
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<Instance>> futures = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            futures.add(executor.submit(() -> cache.get("backend", instance.getId())));
+        }
+        for (Future<Instance> future : futures) {
+            assertSame(instance, future.get(5, SECONDS));
+        }
+        executor.shutdown();
+        assertEquals(1, requests.get());
+    }
+
+    @Test
+    public void cachesMisses () {
+        AtomicInteger requests = new AtomicInteger();
+        InstanceCache cache = new InstanceCache(100, Duration.ofMinutes(1), Duration.ofMinutes(1), (group, id) -> {
+            requests.incrementAndGet();
+            return null;
+        });
+
+        assertNull(cache.get("backend", "unknown"));
+        assertNull(cache.get("backend", "unknown"));
+        assertEquals(1, requests.get());
+
+        cache.invalidate("backend", "unknown");
+        assertNull(cache.get("backend", "unknown"));
+        assertEquals(2, requests.get());
+    }
+
+    @Test
+    public void failuresAreNotCached () {
+        Instance instance = instance();
+        AtomicInteger requests = new AtomicInteger();
+        InstanceCache cache = new InstanceCache(100, Duration.ofMinutes(1), Duration.ofMinutes(1), (group, id) -> {
+            if (requests.incrementAndGet() == 1) {
+                throw new DiscoveryException("status 503 reading Api#getByGroupAndId(String,String)");
+            }
+            return instance;
+        });
+
+        try {
+            cache.get("backend", instance.getId());
+            fail();
+        } catch (DiscoveryException ex) {
+            assertEquals("status 503 reading Api#getByGroupAndId(String,String)", ex.getMessage());
+        }
+        assertSame(instance, cache.get("backend", instance.getId()));
+        assertEquals(2, requests.get());
+    }
+
+    private static Instance instance () {
+        ZonedDateTime now = ZonedDateTime.now();
+        return Instance.builder()
+                .id(UUID.randomUUID().toString())
+                .group("backend")
+                .created(now)
+                .modified(now)
+                .meta(Optional.empty())
+                .build();
+    }
+}
@@ -18,9 +18,13 @@ package com.xxlabaza.luntic.client;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
+import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.io.IOException;
@@ -28,8 +32,10 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 import java.util.stream.Collectors;
 import lombok.Builder;
+import lombok.Data;
 import lombok.Value;
 import org.junit.Test;
 
@@ -151,6 +157,123 @@ public class InstanceTest {
         });
     }
 
+    @Test
+    public void uuidIds () throws IOException {
+        String lowerCase = UUID.randomUUID().toString();
+        String upperCase = UUID.randomUUID().toString().toUpperCase();
+
+        List<Json> expectedList = Arrays.asList(
+                Json.builder()
+                        .id(lowerCase)
+                        .group("popa")
+                        .created("2017-07-22T03:13:35+03:00")
+                        .modified("2017-07-22T03:13:35+03:00")
+                        .build(),
+                Json.builder()
+                        .id(upperCase)
+                        .group("popa")
+                        .created("2017-07-22T03:13:37+03:00")
+                        .modified("2017-07-22T03:13:37+03:00")
+                        .build()
+        );
+
+        List<Instance> result = MAPPER.readValue(Json.toJson(expectedList), INSTANCES_LIST_TYPE);
+
+        assertInstances(expectedList, result);
+        assertEquals(MAPPER.readValue(expectedList.get(0).toString(), Instance.class), result.get(0));
+        assertTrue(result.get(0).toString().contains(lowerCase));
+    }
+
+    @Test
+    public void nullId () throws IOException {
+        String json = "{\"id\": null, \"group\": \"popa\", "
+                      + "\"created\": \"2017-07-22T03:13:35+03:00\", \"modified\": \"2017-07-22T03:13:35+03:00\"}";
+
+        Instance result = MAPPER.readValue(json, Instance.class);
+
+        assertNull(result.getId());
+        assertNotEquals(zeroUuidInstance(), result);
+    }
+
+    @Test
+    public void missingId () throws IOException {
+        String json = "{\"group\": \"popa\", "
+                      + "\"created\": \"2017-07-22T03:13:35+03:00\", \"modified\": \"2017-07-22T03:13:35+03:00\"}";
+
+        Instance result = MAPPER.readValue(json, Instance.class);
+
+        assertNull(result.getId());
+        assertEquals("popa", result.getGroup());
+        assertNotEquals(zeroUuidInstance(), result);
+        assertEquals("00000000-0000-0000-0000-000000000000", zeroUuidInstance().getId());
+    }
+
+    @Test
+    public void groupInterning () throws IOException {
+        List<Json> expectedList = Arrays.asList(
+                Json.builder()
+                        .id("ABCD123")
+                        .group("popa")
+                        .created("2017-07-22T03:13:35+03:00")
+                        .modified("2017-07-22T03:13:35+03:00")
+                        .build(),
+                Json.builder()
+                        .id("ABCD124")
+                        .group("popa")
+                        .created("2017-07-22T03:13:37+03:00")
+                        .modified("2017-07-22T03:13:37+03:00")
+                        .build()
+        );
+
+        List<Instance> result = MAPPER.readValue(Json.toJson(expectedList), INSTANCES_LIST_TYPE);
+
+        assertSame(result.get(0).getGroup(), result.get(1).getGroup());
+    }
+
+    @Test
+    public void typedMeta () throws IOException {
+        Map<String, Object> meta = new HashMap<>(3, 1.F);
+        meta.put("name", "Artem");
+        meta.put("age", "26");
+        meta.put("unknown", "field");
+
+        List<Json> expectedList = Arrays.asList(
+                Json.builder()
+                        .id("ABCD123")
+                        .group("popa")
+                        .created("2017-07-22T03:13:35+03:00")
+                        .modified("2017-07-22T03:13:35+03:00")
+                        .meta(meta)
+                        .build(),
+                Json.builder()
+                        .id("ABCD124")
+                        .group("popa")
+                        .created("2017-07-22T03:13:37+03:00")
+                        .modified("2017-07-22T03:13:37+03:00")
+                        .build()
+        );
+
+        JavaType type = MAPPER.getTypeFactory().constructCollectionType(List.class,
+                MAPPER.getTypeFactory().constructParametricType(TypedInstance.class, Person.class));
+        List<TypedInstance<Person>> result = MAPPER.readerFor(type)
+                .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                .readValue(Json.toJson(expectedList));
+
+        assertEquals(2, result.size());
+        assertEquals("ABCD123", result.get(0).getId());
+        assertEquals("popa", result.get(0).getGroup());
+        assertEquals("2017-07-22T03:13:35+03:00", result.get(0).getCreated().toString());
+        assertEquals("Artem", result.get(0).getMeta().getName());
+        assertEquals(26, result.get(0).getMeta().getAge());
+        assertNull(result.get(1).getMeta());
+    }
+
+    private static Instance zeroUuidInstance () throws IOException {
+        String json = "{\"id\": \"00000000-0000-0000-0000-000000000000\", \"group\": \"popa\", "
+                      + "\"created\": \"2017-07-22T03:13:35+03:00\", \"modified\": \"2017-07-22T03:13:35+03:00\"}";
+        return MAPPER.readValue(json, Instance.class);
+    }
+
     private void assertInstance (Json expected, Instance instance) {
         assertNotNull(instance);
 
@@ -176,6 +299,14 @@ public class InstanceTest {
         }
     }
 
+    @Data
+    static class Person {
+
+        String name;
+
+        int age;
+    }
+
     @Value
     @Builder
     private static class Json {
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2017 Artem Labazin <xxlabaza@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.xxlabaza.luntic.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.junit.Test;
+
+/**
+ *
+ * @author Artem Labazin <xxlabaza@gmail.com>
+ * @since Oct 18, 2026
+ */
+public class LivenessFilterTest {
+
+    private static final Instant NOW = Instant.parse("2026-10-18T12:00:00Z");
+
+    private static final Clock CLOCK = Clock.fixed(NOW, ZoneOffset.UTC);
+
+    @Test
+    public void dropsStaleInstances () {
+        Instance alive = instance(29);
+        Instance skewed = instance(34);
+        Instance stale = instance(36);
+
+        LivenessFilter filter = new LivenessFilter(LivenessMode.DROP, 5_000, () -> 30_000, CLOCK);
+
+        assertEquals(Arrays.asList(alive, skewed), filter.apply(Arrays.asList(stale, alive, skewed)));
+    }
+
+    @Test
+    public void deprioritizesStaleInstances () {
+        Instance first = instance(1);
+        Instance second = instance(2);
+        Instance stale = instance(100);
+
+        LivenessFilter filter = new LivenessFilter(LivenessMode.DEPRIORITIZE, 0, () -> 30_000, CLOCK);
+
+        assertEquals(Arrays.asList(first, second, stale), filter.apply(Arrays.asList(stale, first, second)));
+    }
+
+    @Test
+    public void keepsResultsWithoutStaleInstances () {
+        List<Instance> instances = Arrays.asList(instance(1), instance(2));
+        Map<String, List<Instance>> registry = Collections.singletonMap("popa", instances);
+
+        LivenessFilter filter = new LivenessFilter(LivenessMode.DROP, 0, () -> 30_000, CLOCK);
+
+        assertSame(instances, filter.apply(instances));
+        assertSame(registry, filter.apply(registry));
+    }
+
+    @Test
+    public void unknownExpiry () {
+        List<Instance> instances = Arrays.asList(instance(1), instance(1_000));
+
+        LivenessFilter filter = new LivenessFilter(LivenessMode.DROP, 0, () -> 0, CLOCK);
+
+        assertSame(instances, filter.apply(instances));
+    }
+
+    @Test
+    public void filtersRegistry () {
+        Instance alive = instance(1);
+        Map<String, List<Instance>> registry = new LinkedHashMap<>();
+        registry.put("one", Arrays.asList(alive));
+        registry.put("two", Arrays.asList(instance(100)));
+        registry.put("three", Arrays.asList(instance(100), alive));
+
+        LivenessFilter filter = new LivenessFilter(LivenessMode.DROP, 0, () -> 30_000, CLOCK);
+
+        Map<String, List<Instance>> expected = new LinkedHashMap<>();
+        expected.put("one", Arrays.asList(alive));
+        expected.put("three", Arrays.asList(alive));
+        assertEquals(expected, filter.apply(registry));
+    }
+
+    private static Instance instance (long secondsAgo) {
+        ZonedDateTime modified = ZonedDateTime.ofInstant(NOW.minusSeconds(secondsAgo), ZoneOffset.UTC);
+        return Instance.builder()
+                .id(UUID.randomUUID().toString())
+                .group("popa")
+                .created(modified)
+                .modified(modified)
+                .build();
+    }
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright 2017 Artem Labazin <xxlabaza@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.xxlabaza.luntic.client;
+
+/**
+ * Checks the packaged multi-release jar, the java21 profile runs it on Java 21
+ * with the jar on the class path. It fails, unless client's background threads are virtual,
+ * which means the Java 21 version of {@link Threads} is packaged and picked up.
+ *
+ * @author Artem Labazin <xxlabaza@gmail.com>
+ * @since Oct 18, 2026
+ */
+public final class MultiReleaseProbe {
+
+    public static void main (String[] args) throws ReflectiveOperationException {
+        Thread thread = Threads.factory("luntic-probe").newThread(() -> {
+        });
+        // Thread.isVirtual() doesn't exist in Java 8, which tests are compiled for
+        Object virtual = Thread.class.getMethod("isVirtual").invoke(thread);
+        if (!Boolean.TRUE.equals(virtual)) {
+            System.err.println("Background threads aren't virtual: " + thread);
+            System.exit(1);
+        }
+        System.out.println("Background threads are virtual: " + thread);
+    }
+
+    private MultiReleaseProbe () {
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2017 Artem Labazin <xxlabaza@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.xxlabaza.luntic.client;
+
+import static java.util.stream.Collectors.toSet;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Field;
+import java.time.Duration;
+import java.util.Set;
+import java.util.stream.StreamSupport;
+import org.junit.Test;
+
+/**
+ * Checks, that native-image configuration follows the code - GraalVM silently skips missing classes.
+ *
+ * @author Artem Labazin <xxlabaza@gmail.com>
+ * @since Oct 18, 2026
+ */
+public class NativeImageConfigTest {
+
+    private static final String PATH = "/META-INF/native-image/com.xxlabaza.luntic/luntic-client/";
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    public void reflectedClassesExist () throws Exception {
+        for (String name : reflected()) {
+            Class.forName(name, false, getClass().getClassLoader());
+        }
+    }
+
+    @Test
+    public void proxies () throws IOException {
+        JsonNode config = read("proxy-config.json");
+        assertEquals(1, config.size());
+        assertEquals(Api.class.getName(), config.get(0).get("interfaces").get(0).asText());
+        assertTrue(reflected().contains(Api.class.getName()));
+    }
+
+    @Test
+    public void typeReferences () throws Exception {
+        Set<String> reflected = reflected();
+        for (String name : new String[] { "com.xxlabaza.luntic.client.ParallelDecoder$1",
+                                          "com.xxlabaza.luntic.client.ParallelDecoder$2" }) {
+            assertTrue(reflected.contains(name));
+            assertEquals(TypeReference.class, Class.forName(name).getSuperclass());
+        }
+    }
+
+    @Test
+    public void deserializers () throws IOException {
+        Set<String> reflected = reflected();
+        assertTrue(reflected.contains(Instance.Deserializer.class.getName()));
+        assertTrue(reflected.contains(TypedInstance.Deserializer.class.getName()));
+        assertTrue(reflected.contains(Instance.InstanceBuilder.class.getName()));
+    }
+
+    @Test
+    public void instanceCacheClasses () throws Exception {
+        InstanceCache instanceCache = new InstanceCache(10, Duration.ofSeconds(1), Duration.ofSeconds(1),
+                                                        (group, id) -> null);
+        Object loadingCache = field(instanceCache, "cache");
+        Object cache = field(loadingCache, "cache");
+        Object nodeFactory = field(cache, "nodeFactory");
+
+        Set<String> reflected = reflected();
+        assertTrue(reflected.contains(cache.getClass().getName()));
+        assertTrue(reflected.contains(nodeFactory.getClass().getName()));
+    }
+
+    private Set<String> reflected () throws IOException {
+        return StreamSupport.stream(read("reflect-config.json").spliterator(), false)
+                .map(it -> it.get("name").asText())
+                .collect(toSet());
+    }
+
+    private JsonNode read (String file) throws IOException {
+        try (InputStream stream = getClass().getResourceAsStream(PATH + file)) {
+            return mapper.readTree(stream);
+        }
+    }
+
+    private static Object field (Object object, String name) throws ReflectiveOperationException {
+        for (Class<?> type = object.getClass(); type != null; type = type.getSuperclass()) {
+            try {
+                Field field = type.getDeclaredField(name);
+                field.setAccessible(true);
+                return field.get(object);
+            } catch (NoSuchFieldException ex) {
+                // look in superclass
+            }
+        }
+        throw new NoSuchFieldException(name);
+    }
+}
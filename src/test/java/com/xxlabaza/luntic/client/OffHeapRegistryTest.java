@@ -0,0 +1,165 @@
+/*
+ * Copyright 2017 Artem Labazin <xxlabaza@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.xxlabaza.luntic.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import org.junit.Test;
+
+/**
+ *
+ * @author Artem Labazin <xxlabaza@gmail.com>
+ * @since Oct 18, 2026
+ */
+public class OffHeapRegistryTest {
+
+    private static final ZonedDateTime CREATED = ZonedDateTime.of(2017, 7, 22, 3, 13, 35, 123_000_000,
+                                                                  ZoneOffset.ofHours(3));
+
+    @Test
+    public void roundTrip () {
+        Map<String, Object> meta = new HashMap<>();
+        meta.put("zone", "a");
+        meta.put("weight", 10);
+
+        List<Instance> instances = Arrays.asList(
+                instance("popa", UUID.randomUUID().toString(), Optional.of(meta)),
+                instance("popa", "ABCD123", Optional.empty()),
+                instance("zuul", UUID.randomUUID().toString().toUpperCase(), Optional.of(meta))
+        );
+
+        OffHeapRegistry.Builder builder = new OffHeapRegistry.Builder(OffHeapRegistry.DEFAULT_SLAB_SIZE);
+        instances.forEach(builder::add);
+        OffHeapRegistry registry = builder.build();
+
+        assertEquals(3, registry.size());
+        assertEquals(new HashSet<>(Arrays.asList("popa", "zuul")), registry.groups());
+        assertEquals(2, registry.count("popa"));
+        assertEquals(0, registry.count("unknown"));
+
+        OffHeapRegistry.InstanceView view = registry.view();
+        for (Instance instance : instances) {
+            assertTrue(registry.find(instance.getGroup(), instance.getId(), view));
+            assertEquals(instance.getId(), view.getId());
+            assertEquals(instance.getGroup(), view.getGroup());
+            assertEquals(instance.getCreated(), view.getCreated());
+            assertEquals(instance.getModified(), view.getModified());
+            assertEquals(instance.getMeta(), view.getMeta());
+            assertEquals(instance, view.toInstance());
+        }
+        assertFalse(registry.find("popa", UUID.randomUUID().toString(), view));
+        assertFalse(registry.find("popa", "ABCD124", view));
+        assertFalse(registry.find("zuul", "ABCD123", view));
+        assertFalse(registry.find("unknown", "ABCD123", view));
+    }
+
+    @Test
+    public void manySlabs () {
+        // small slabs make records spread over many of them
+        OffHeapRegistry.Builder builder = new OffHeapRegistry.Builder(512);
+        List<Instance> instances = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            Map<String, Object> meta = new HashMap<>();
+            meta.put("index", i);
+            Instance instance = instance("group-" + i % 7, UUID.randomUUID().toString(), Optional.of(meta));
+            instances.add(instance);
+            builder.add(instance);
+        }
+        OffHeapRegistry registry = builder.build();
+        assertEquals(instances.size(), registry.size());
+        assertTrue(registry.offHeapBytes() > 512 * 100);
+
+        OffHeapRegistry.InstanceView view = registry.view();
+        for (Instance instance : instances) {
+            assertTrue(registry.find(instance.getGroup(), instance.getId(), view));
+            assertEquals(instance.getMeta(), view.getMeta());
+        }
+
+        List<Instance> group = new ArrayList<>();
+        registry.forEach("group-3", it -> group.add(it.toInstance()));
+        List<Instance> expected = new ArrayList<>();
+        instances.stream()
+                .filter(it -> "group-3".equals(it.getGroup()))
+                .forEach(expected::add);
+        assertEquals(expected, group);
+
+        int[] count = { 0 };
+        registry.forEach(it -> count[0]++);
+        assertEquals(instances.size(), count[0]);
+    }
+
+    @Test
+    public void groupNamesAreShared () {
+        OffHeapRegistry.Builder builder = new OffHeapRegistry.Builder(OffHeapRegistry.DEFAULT_SLAB_SIZE);
+        builder.add(instance("popa", "1", Optional.empty()));
+        builder.add(instance(new String("popa"), "2", Optional.empty()));
+        OffHeapRegistry registry = builder.build();
+
+        List<String> groups = new ArrayList<>();
+        registry.forEach("popa", it -> groups.add(it.getGroup()));
+        assertEquals(2, groups.size());
+        assertSame(groups.get(0), groups.get(1));
+    }
+
+    @Test
+    public void instanceWithoutId () {
+        Instance instance = instance("popa", null, Optional.empty());
+        OffHeapRegistry.Builder builder = new OffHeapRegistry.Builder(OffHeapRegistry.DEFAULT_SLAB_SIZE);
+        builder.add(instance);
+        builder.add(instance("popa", "ABCD123", Optional.empty()));
+        OffHeapRegistry registry = builder.build();
+
+        List<Instance> group = new ArrayList<>();
+        registry.forEach("popa", it -> group.add(it.toInstance()));
+        assertEquals(2, group.size());
+        assertNull(group.get(0).getId());
+        assertEquals(instance, group.get(0));
+        assertEquals("ABCD123", group.get(1).getId());
+        assertFalse(registry.find("popa", "00000000-0000-0000-0000-000000000000", registry.view()));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void unpositionedView () {
+        OffHeapRegistry registry = new OffHeapRegistry.Builder(OffHeapRegistry.DEFAULT_SLAB_SIZE).build();
+        assertEquals(0, registry.size());
+        registry.view().getId();
+    }
+
+    private static Instance instance (String group, String id, Optional<Map<String, Object>> meta) {
+        return Instance.builder()
+                .id(id)
+                .group(group)
+                .created(CREATED)
+                .modified(CREATED.plusSeconds(7))
+                .meta(meta)
+                .build();
+    }
+}
@@ -0,0 +1,231 @@
+/*
+ * Copyright 2017 Artem Labazin <xxlabaza@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.xxlabaza.luntic.client;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.Test;
+
+/**
+ *
+ * @author Artem Labazin <xxlabaza@gmail.com>
+ * @since Oct 18, 2026
+ */
+public class OutlierDetectorTest {
+
+    private final AtomicLong clock = new AtomicLong();
+
+    private final Random random = new Random(42);
+
+    @Test
+    public void ejectsFailingInstance () {
+        List<Instance> instances = instances(5);
+        Instance bad = instances.get(0);
+        OutlierDetector detector = detector(null);
+        ZoneAwareRouter router = router(instances, detector);
+
+        // 10 seconds of traffic, 1000 requests per second, the bad instance fails half of its requests
+        Map<Instance, Integer> counts = simulate(router, detector, bad, 0.5D, 10_000);
+
+        assertTrue(detector.isEjected(bad));
+        instances.subList(1, 5).forEach(it -> assertFalse(detector.isEjected(it)));
+        // the bad instance got only the requests, needed for its ejection
+        assertTrue(counts.getOrDefault(bad, 0) < 200);
+    }
+
+    @Test
+    public void letsInstanceBackGradually () {
+        List<Instance> instances = instances(5);
+        Instance bad = instances.get(0);
+        OutlierDetector detector = detector(null);
+        ZoneAwareRouter router = router(instances, detector);
+
+        simulate(router, detector, bad, 1.D, 1_000);
+        assertTrue(detector.isEjected(bad));
+
+        // the instance is healthy now, but still ejected till the end of 30 seconds
+        clock.addAndGet(SECONDS.toNanos(28));
+        assertEquals(0, simulate(router, detector, bad, 0.D, 500).getOrDefault(bad, 0).intValue());
+
+        // in the middle of recovery it gets about a half of its fair share
+        clock.addAndGet(SECONDS.toNanos(15));
+        int share = simulate(router, detector, bad, 0.D, 5_000).getOrDefault(bad, 0);
+        assertTrue(share > 300 && share < 900);
+
+        // after recovery it gets the fair share
+        clock.addAndGet(SECONDS.toNanos(30));
+        share = simulate(router, detector, bad, 0.D, 5_000).getOrDefault(bad, 0);
+        assertTrue(share > 850 && share < 1150);
+        assertFalse(detector.isEjected(bad));
+    }
+
+    @Test
+    public void ejectionTimeGrows () {
+        List<Instance> instances = instances(1);
+        Instance bad = instances.get(0);
+        OutlierDetector detector = detector(null);
+
+        fail(detector, bad, 20);
+        assertTrue(detector.isEjected(bad));
+        clock.addAndGet(SECONDS.toNanos(31));
+        assertFalse(detector.isEjected(bad));
+
+        // fails right after the first ejection - the second one is twice longer
+        fail(detector, bad, 20);
+        clock.addAndGet(SECONDS.toNanos(59));
+        assertTrue(detector.isEjected(bad));
+        clock.addAndGet(SECONDS.toNanos(2));
+        assertFalse(detector.isEjected(bad));
+    }
+
+    @Test
+    public void ejectsSlowInstance () {
+        Instance slow = instances(1).get(0);
+        OutlierDetector detector = detector(Duration.ofMillis(100));
+
+        for (int i = 0; i < 19; i++) {
+            detector.success(slow, MILLISECONDS.toNanos(500));
+        }
+        assertFalse(detector.isEjected(slow));
+        detector.success(slow, MILLISECONDS.toNanos(500));
+        assertTrue(detector.isEjected(slow));
+    }
+
+    @Test
+    public void oldFailuresLeaveWindow () {
+        Instance instance = instances(1).get(0);
+        OutlierDetector detector = detector(null);
+
+        fail(detector, instance, 15);
+        clock.addAndGet(SECONDS.toNanos(11));
+        for (int i = 0; i < 10; i++) {
+            detector.success(instance, 0);
+        }
+        fail(detector, instance, 5);
+        assertFalse(detector.isEjected(instance));
+    }
+
+    @Test
+    public void forgetsRemovedInstances () {
+        Instance instance = instances(1).get(0);
+        OutlierDetector detector = detector(null);
+        fail(detector, instance, 20);
+        assertTrue(detector.isEjected(instance));
+
+        RegistrySnapshot previous = new RegistrySnapshot(1, Collections.singletonMap(
+                "backend", Collections.singletonList(instance)));
+        RegistrySnapshot current = new RegistrySnapshot(2, Collections.emptyMap());
+        detector.onChanges(previous, current, RegistryDiff.compute(previous, current, false));
+
+        assertFalse(detector.isEjected(instance));
+        assertTrue(detector.isAvailable(instance));
+    }
+
+    @Test
+    public void statisticsFollowInstanceId () {
+        Instance instance = instances(1).get(0);
+        OutlierDetector detector = detector(null);
+        fail(detector, instance, 20);
+
+        // a heartbeat changes modification time, a refreshed snapshot has a new instance object
+        Instance touched = Instance.builder()
+                .id(instance.getId())
+                .group(instance.getGroup())
+                .created(instance.getCreated())
+                .modified(instance.getModified().plusSeconds(1))
+                .meta(instance.getMeta())
+                .build();
+        assertTrue(detector.isEjected(touched));
+
+        Instance raw = Instance.builder()
+                .id("ABCD123")
+                .group("backend")
+                .meta(Optional.empty())
+                .build();
+        fail(detector, raw, 20);
+        assertTrue(detector.isEjected(Instance.builder()
+                .id(new String("ABCD123"))
+                .group("backend")
+                .meta(Optional.empty())
+                .build()));
+    }
+
+    private Map<Instance, Integer> simulate (ZoneAwareRouter router, OutlierDetector detector,
+                                             Instance bad, double failureRate, int requests
+    ) {
+        Map<Instance, Integer> counts = new HashMap<>();
+        for (int i = 0; i < requests; i++) {
+            clock.addAndGet(MILLISECONDS.toNanos(1));
+            Instance instance = router.choose("backend");
+            counts.merge(instance, 1, Integer::sum);
+            if (instance == bad && random.nextDouble() < failureRate) {
+                detector.failure(instance, MILLISECONDS.toNanos(5));
+            } else {
+                detector.success(instance, MILLISECONDS.toNanos(5));
+            }
+        }
+        return counts;
+    }
+
+    private void fail (OutlierDetector detector, Instance instance, int count) {
+        for (int i = 0; i < count; i++) {
+            detector.failure(instance, 0);
+        }
+    }
+
+    private OutlierDetector detector (Duration slowCallThreshold) {
+        return new OutlierDetector(null, null, null, slowCallThreshold, null, null, null, clock::get);
+    }
+
+    private static ZoneAwareRouter router (List<Instance> instances, OutlierDetector detector) {
+        RegistrySnapshot snapshot = new RegistrySnapshot(1, Collections.singletonMap("backend", instances));
+        return ZoneAwareRouter.builder()
+                .snapshots(() -> snapshot)
+                .available(detector::isAvailable)
+                .build();
+    }
+
+    private static List<Instance> instances (int count) {
+        ZonedDateTime now = ZonedDateTime.now();
+        List<Instance> result = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            result.add(Instance.builder()
+                    .id(UUID.randomUUID().toString())
+                    .group("backend")
+                    .created(now)
+                    .modified(now)
+                    .meta(Optional.empty())
+                    .build());
+        }
+        return result;
+    }
+}
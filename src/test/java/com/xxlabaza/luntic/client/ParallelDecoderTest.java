@@ -0,0 +1,149 @@
+/*
+ * Copyright 2017 Artem Labazin <xxlabaza@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.xxlabaza.luntic.client;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import feign.Response;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.AfterClass;
+import org.junit.Test;
+
+/**
+ *
+ * @author Artem Labazin <xxlabaza@gmail.com>
+ * @since Oct 18, 2026
+ */
+public class ParallelDecoderTest {
+
+    private static final ForkJoinPool POOL = new ForkJoinPool(4);
+
+    private static final TypeReference<Map<String, List<Instance>>> REGISTRY_TYPE =
+            new TypeReference<Map<String, List<Instance>>>() {
+            };
+
+    @AfterClass
+    public static void afterClass () {
+        POOL.shutdownNow();
+    }
+
+    @Test
+    public void sameResultAsSequentialDecoding () throws IOException {
+        Codec codec = new Codec(WireFormat.JSON);
+        byte[] json = registry(20, 100).getBytes(UTF_8);
+        assertTrue(json.length > ParallelDecoder.MIN_PARALLEL_BYTES);
+
+        Map<String, List<Instance>> expected = codec.getJson().readValue(json, REGISTRY_TYPE);
+        Map<String, List<Instance>> result = new ParallelDecoder(codec, POOL, null)
+                .decodeParallel(codec.getJson(), json);
+
+        assertEquals(expected, result);
+        assertEquals(new ArrayList<>(expected.keySet()), new ArrayList<>(result.keySet()));
+    }
+
+    @Test
+    public void nullGroupsAndEscapedNames () throws IOException {
+        Codec codec = new Codec(WireFormat.JSON);
+        String json = "{\"one\": null, \"t\\\"wo\": [], \"three\": " + group("three", 2) + "}";
+
+        Map<String, List<Instance>> result = new ParallelDecoder(codec, POOL, null)
+                .decodeParallel(codec.getJson(), json.getBytes(UTF_8));
+
+        assertEquals(3, result.size());
+        assertNull(result.get("one"));
+        assertTrue(result.get("t\"wo").isEmpty());
+        assertEquals(2, result.get("three").size());
+    }
+
+    @Test
+    public void decodesResponses () throws IOException {
+        Codec codec = new Codec(WireFormat.SMILE);
+        ParallelDecoder decoder = new ParallelDecoder(codec, POOL, null);
+        String json = registry(20, 100);
+        Map<String, List<Instance>> expected = codec.getJson().readValue(json, REGISTRY_TYPE);
+
+        assertEquals(expected, decoder.decode(response(WireFormat.JSON, json.getBytes(UTF_8))));
+
+        byte[] smile = new ObjectMapper(new SmileFactory())
+                .writeValueAsBytes(codec.getJson().readValue(json, Map.class));
+        assertEquals(expected, decoder.decode(response(WireFormat.SMILE, smile)));
+
+        assertTrue(decoder.decode(response(WireFormat.JSON, new byte[0])).isEmpty());
+    }
+
+    @Test(expected = DiscoveryException.class)
+    public void brokenGroup () throws IOException {
+        Codec codec = new Codec(WireFormat.JSON);
+        String json = "{\"one\": " + group("one", 1) + ", \"two\": [{\"created\": \"yesterday\"}]}";
+        new ParallelDecoder(codec, POOL, null).decodeParallel(codec.getJson(), json.getBytes(UTF_8));
+    }
+
+    private static Response response (WireFormat format, byte[] body) {
+        Map<String, Collection<String>> headers = new HashMap<>();
+        headers.put("Content-Type", Collections.singletonList(format.getMediaType()));
+        return Response.builder()
+                .status(200)
+                .headers(headers)
+                .body(body)
+                .build();
+    }
+
+    private static String registry (int groups, int instances) {
+        Map<String, String> result = new LinkedHashMap<>();
+        for (int i = 0; i < groups; i++) {
+            result.put("group-" + i, group("group-" + i, instances));
+        }
+        StringBuilder builder = new StringBuilder("{");
+        result.forEach((name, group) -> {
+            if (builder.length() > 1) {
+                builder.append(", ");
+            }
+            builder.append('"').append(name).append("\": ").append(group);
+        });
+        return builder.append('}').toString();
+    }
+
+    private static String group (String name, int instances) {
+        StringBuilder builder = new StringBuilder("[");
+        for (int i = 0; i < instances; i++) {
+            if (i > 0) {
+                builder.append(", ");
+            }
+            builder.append("{\"id\": \"").append(UUID.randomUUID()).append("\", ")
+                    .append("\"group\": \"").append(name).append("\", ")
+                    .append("\"created\": \"2017-07-22T03:13:35+03:00\", ")
+                    .append("\"modified\": \"2017-07-22T03:13:37+03:00\", ")
+                    .append("\"meta\": {\"index\": ").append(i).append("}}");
+        }
+        return builder.append(']').toString();
+    }
+}
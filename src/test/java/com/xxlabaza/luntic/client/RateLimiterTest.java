@@ -0,0 +1,76 @@
+/*
+ * Copyright 2017 Artem Labazin <xxlabaza@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.xxlabaza.luntic.client;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ *
+ * @author Artem Labazin <xxlabaza@gmail.com>
+ * @since Oct 18, 2026
+ */
+public class RateLimiterTest {
+
+    @Test
+    public void disabledByDefault () {
+        RateLimiter limiter = new RateLimiter();
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(0, limiter.reserve());
+        }
+    }
+
+    @Test
+    public void burstThenSteadyRate () {
+        RateLimiter limiter = new RateLimiter();
+        limiter.configure(10, 3);
+
+        assertEquals(0, limiter.reserve());
+        assertEquals(0, limiter.reserve());
+        assertEquals(0, limiter.reserve());
+
+        long first = limiter.reserve();
+        long second = limiter.reserve();
+        assertTrue(first > 0 && first <= MILLISECONDS.toNanos(100));
+        // the second caller waits for one more token after the first one
+        assertTrue(second - first > MILLISECONDS.toNanos(90));
+    }
+
+    @Test
+    public void refillsAfterIdle () throws InterruptedException {
+        RateLimiter limiter = new RateLimiter();
+        limiter.configure(50, 1);
+
+        assertEquals(0, limiter.reserve());
+        MILLISECONDS.sleep(40);
+        assertEquals(0, limiter.reserve());
+    }
+
+    @Test
+    public void disabledByReconfiguration () {
+        RateLimiter limiter = new RateLimiter();
+        limiter.configure(1, 1);
+        limiter.reserve();
+        assertTrue(limiter.reserve() > 0);
+
+        limiter.configure(0, 0);
+        assertEquals(0, limiter.reserve());
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2017 Artem Labazin <xxlabaza@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.xxlabaza.luntic.client;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ *
+ * @author Artem Labazin <xxlabaza@gmail.com>
+ * @since Oct 18, 2026
+ */
+public class RefreshIntervalTest {
+
+    @Test
+    public void backsOffWhileStable () {
+        RefreshInterval interval = new RefreshInterval(100, 1000);
+        assertEquals(100, interval.currentMillis());
+
+        long[] expected = { 200, 400, 800, 1000, 1000 };
+        long nanos = 1;
+        for (long millis : expected) {
+            interval.record(0, nanos);
+            nanos += SECONDS.toNanos(1);
+            assertEquals(millis, interval.currentMillis());
+        }
+        assertEquals(0.D, interval.changeRate(), 0.D);
+    }
+
+    @Test
+    public void speedsUpOnChanges () {
+        RefreshInterval interval = new RefreshInterval(100, 1000);
+        for (int i = 1; i <= 5; i++) {
+            interval.record(0, i * SECONDS.toNanos(1));
+        }
+        assertEquals(1000, interval.currentMillis());
+
+        interval.record(3, 6 * SECONDS.toNanos(1));
+        assertEquals(100, interval.currentMillis());
+        interval.record(0, 7 * SECONDS.toNanos(1));
+        assertEquals(200, interval.currentMillis());
+    }
+
+    @Test
+    public void changeRate () {
+        RefreshInterval interval = new RefreshInterval(100, 1000);
+        interval.record(100, SECONDS.toNanos(1));
+        // the first refresh has nothing to compare with
+        assertEquals(0.D, interval.changeRate(), 0.D);
+
+        for (int i = 2; i < 50; i++) {
+            interval.record(10, i * SECONDS.toNanos(1));
+        }
+        assertEquals(10.D, interval.changeRate(), 0.01D);
+
+        for (int i = 50; i < 100; i++) {
+            interval.record(0, i * SECONDS.toNanos(1));
+        }
+        assertTrue(interval.changeRate() < 0.01D);
+    }
+
+    @Test
+    public void fixedPeriod () {
+        RefreshInterval interval = new RefreshInterval(500, 500);
+        interval.record(0, 1);
+        interval.record(5, SECONDS.toNanos(1));
+        interval.record(0, SECONDS.toNanos(2));
+        assertEquals(500, interval.currentMillis());
+        assertEquals(new RefreshStats(500, interval.changeRate()), interval.stats());
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2017 Artem Labazin <xxlabaza@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.xxlabaza.luntic.client;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ *
+ * @author Artem Labazin <xxlabaza@gmail.com>
+ * @since Oct 18, 2026
+ */
+public class RefreshPlannerTest {
+
+    @Test
+    public void measuresBothStrategiesFirst () {
+        RefreshPlanner planner = new RefreshPlanner();
+
+        assertTrue(planner.useAll());
+        planner.recordAll(MILLISECONDS.toNanos(100), 1000, 10);
+
+        assertFalse(planner.useAll());
+        planner.recordGroups(MILLISECONDS.toNanos(10));
+
+        assertFalse(planner.useAll());
+    }
+
+    @Test
+    public void prefersFasterStrategy () {
+        RefreshPlanner planner = new RefreshPlanner();
+        planner.useAll();
+        planner.recordAll(MILLISECONDS.toNanos(10), 1000, 100);
+        planner.useAll();
+        planner.recordGroups(MILLISECONDS.toNanos(50));
+
+        int all = 0;
+        for (int i = 0; i < RefreshPlanner.EXPLORATION_PERIOD * 4; i++) {
+            if (planner.useAll()) {
+                all++;
+            }
+        }
+        // the slower strategy is re-measured once per exploration period
+        assertEquals(RefreshPlanner.EXPLORATION_PERIOD * 4 - 4, all);
+    }
+
+    @Test
+    public void followsLatencyChanges () {
+        RefreshPlanner planner = new RefreshPlanner();
+        planner.useAll();
+        planner.recordAll(MILLISECONDS.toNanos(10), 1000, 100);
+        planner.useAll();
+        planner.recordGroups(MILLISECONDS.toNanos(50));
+        assertTrue(planner.useAll());
+
+        for (int i = 0; i < 10; i++) {
+            planner.recordAll(MILLISECONDS.toNanos(200), 1000, 100);
+        }
+        assertFalse(planner.useAll());
+    }
+
+    @Test
+    public void skipsPerGroupRequestsForWholeRegistry () {
+        RefreshPlanner planner = new RefreshPlanner();
+        planner.useAll();
+        planner.recordAll(MILLISECONDS.toNanos(500), 1000, 990);
+
+        for (int i = 0; i < RefreshPlanner.EXPLORATION_PERIOD * 2; i++) {
+            assertTrue(planner.useAll());
+        }
+    }
+}
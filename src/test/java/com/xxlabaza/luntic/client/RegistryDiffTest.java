@@ -0,0 +1,126 @@
+/*
+ * Copyright 2017 Artem Labazin <xxlabaza@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.xxlabaza.luntic.client;
+
+import static com.xxlabaza.luntic.client.InstanceChange.Type.ADDED;
+import static com.xxlabaza.luntic.client.InstanceChange.Type.REMOVED;
+import static com.xxlabaza.luntic.client.InstanceChange.Type.TOUCHED;
+import static com.xxlabaza.luntic.client.InstanceChange.Type.UPDATED;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import org.junit.Test;
+
+/**
+ *
+ * @author Artem Labazin <xxlabaza@gmail.com>
+ * @since Oct 18, 2026
+ */
+public class RegistryDiffTest {
+
+    private static final ZonedDateTime NOW = ZonedDateTime.now();
+
+    @Test
+    public void sameSnapshots () {
+        Map<String, List<Instance>> registry = new HashMap<>();
+        registry.put("backend", Arrays.asList(instance("backend", "1"), instance("backend", "2")));
+
+        assertTrue(RegistryDiff.compute(new RegistrySnapshot(1, registry),
+                                        new RegistrySnapshot(2, registry),
+                                        true).isEmpty());
+    }
+
+    @Test
+    public void addedAndRemoved () {
+        Instance kept = instance("backend", "1");
+        Instance removed = instance("backend", "2");
+        Instance added = instance("frontend", "1");
+
+        RegistrySnapshot previous = new RegistrySnapshot(1, Collections.singletonMap(
+                "backend", Arrays.asList(kept, removed)));
+
+        Map<String, List<Instance>> registry = new HashMap<>();
+        registry.put("backend", Collections.singletonList(kept));
+        registry.put("frontend", Collections.singletonList(added));
+        RegistrySnapshot current = new RegistrySnapshot(2, registry);
+
+        List<InstanceChange> changes = RegistryDiff.compute(previous, current, true);
+        assertEquals(2, changes.size());
+
+        InstanceChange addition = changes.get(0);
+        assertEquals(ADDED, addition.getType());
+        assertNull(addition.getPrevious());
+        assertSame(added, addition.getCurrent());
+        assertEquals("frontend", addition.getGroup());
+
+        InstanceChange removal = changes.get(1);
+        assertEquals(REMOVED, removal.getType());
+        assertSame(removed, removal.getPrevious());
+        assertNull(removal.getCurrent());
+        assertEquals(removed.getId(), removal.getId());
+    }
+
+    @Test
+    public void updatedAndTouched () {
+        String updatedId = UUID.randomUUID().toString();
+        String touchedId = UUID.randomUUID().toString();
+
+        RegistrySnapshot previous = new RegistrySnapshot(1, Collections.singletonMap("backend", Arrays.asList(
+                instance("backend", updatedId, NOW, "1"),
+                instance("backend", touchedId, NOW, "1")
+        )));
+        RegistrySnapshot current = new RegistrySnapshot(2, Collections.singletonMap("backend", Arrays.asList(
+                instance("backend", updatedId, NOW, "2"),
+                instance("backend", touchedId, NOW.plusSeconds(5), "1")
+        )));
+
+        List<InstanceChange> changes = RegistryDiff.compute(previous, current, true);
+        assertEquals(2, changes.size());
+        assertEquals(UPDATED, changes.get(0).getType());
+        assertEquals(updatedId, changes.get(0).getId());
+        assertEquals(TOUCHED, changes.get(1).getType());
+        assertEquals(touchedId, changes.get(1).getId());
+
+        changes = RegistryDiff.compute(previous, current, false);
+        assertEquals(1, changes.size());
+        assertEquals(UPDATED, changes.get(0).getType());
+    }
+
+    private static Instance instance (String group, String value) {
+        return instance(group, UUID.randomUUID().toString(), NOW, value);
+    }
+
+    private static Instance instance (String group, String id, ZonedDateTime modified, String value) {
+        return Instance.builder()
+                .id(id)
+                .group(group)
+                .created(NOW)
+                .modified(modified)
+                .meta(Optional.of(Collections.singletonMap("value", value)))
+                .build();
+    }
+}
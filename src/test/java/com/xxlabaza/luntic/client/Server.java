@@ -17,16 +17,20 @@
 package com.xxlabaza.luntic.client;
 
 import static java.time.format.DateTimeFormatter.ISO_OFFSET_DATE_TIME;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.springframework.http.HttpStatus.CREATED;
 import static org.springframework.http.HttpStatus.NOT_FOUND;
 import static org.springframework.http.HttpStatus.NO_CONTENT;
+import static org.springframework.http.HttpStatus.SERVICE_UNAVAILABLE;
+import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
 
 import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializerProvider;
 import com.fasterxml.jackson.databind.module.SimpleModule;
 import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 import java.io.IOException;
 import java.time.ZonedDateTime;
 import java.time.temporal.ChronoUnit;
@@ -42,7 +46,11 @@ import javax.annotation.PostConstruct;
 import javax.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -71,12 +79,28 @@ public class Server {
 
     private long expired;
 
+    private volatile boolean failUpdates;
+
+    private volatile long readDelay;
+
+    private volatile boolean failDeletes;
+
+    private volatile long updateDelay;
+
+    private volatile long createDelay;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @PostMapping("/{group}")
     @ResponseStatus(CREATED)
     public Instance create (@PathVariable("group") String group,
                             @RequestBody(required = false) Map<String, Object> meta,
                             HttpServletResponse response
-    ) {
+    ) throws InterruptedException {
+        if (createDelay > 0) {
+            MILLISECONDS.sleep(createDelay);
+        }
         String id = UUID.randomUUID().toString();
 
         response.addHeader("Location", '/' + group + '/' + id);
@@ -97,8 +121,16 @@ public class Server {
     }
 
     @GetMapping("/")
-    public Map<String, List<Instance>> read () {
-        return REPOSITORY;
+    public Map<String, List<Instance>> read (HttpServletResponse response) throws IOException, InterruptedException {
+        if (readDelay <= 0) {
+            return REPOSITORY;
+        }
+        // headers go out at once, the body is held back, like a slow multi-megabyte transfer
+        response.setContentType(APPLICATION_JSON_VALUE);
+        response.flushBuffer();
+        MILLISECONDS.sleep(readDelay);
+        objectMapper.writeValue(response.getOutputStream(), REPOSITORY);
+        return null;
     }
 
     @GetMapping("/{group}")
@@ -127,7 +159,14 @@ public class Server {
                             @PathVariable("id") String id,
                             @RequestBody(required = false) Map<String, Object> meta,
                             HttpServletResponse response
-    ) {
+    ) throws InterruptedException {
+        if (updateDelay > 0) {
+            MILLISECONDS.sleep(updateDelay);
+        }
+        if (failUpdates) {
+            response.setStatus(SERVICE_UNAVAILABLE.value());
+            return null;
+        }
         List<Instance> instances = REPOSITORY.get(group);
         if (instances == null) {
             response.setStatus(NOT_FOUND.value());
@@ -163,7 +202,12 @@ public class Server {
     public void delete (@PathVariable("group") String group,
                         @PathVariable("id") String id,
                         HttpServletResponse response
-    ) {
+    ) throws IOException {
+        if (failDeletes) {
+            // unlike setStatus, it isn't overridden by @ResponseStatus
+            response.sendError(SERVICE_UNAVAILABLE.value());
+            return;
+        }
         List<Instance> instances = REPOSITORY.get(group);
         if (instances == null) {
             response.setStatus(NOT_FOUND.value());
@@ -208,6 +252,26 @@ public class Server {
         cleanerExecutor.scheduleAtFixedRate(task, seconds, seconds, SECONDS);
     }
 
+    void failUpdates (boolean failUpdates) {
+        this.failUpdates = failUpdates;
+    }
+
+    void failDeletes (boolean failDeletes) {
+        this.failDeletes = failDeletes;
+    }
+
+    void slowUpdates (long millis) {
+        updateDelay = millis;
+    }
+
+    void slowCreates (long millis) {
+        createDelay = millis;
+    }
+
+    void slowReads (long millis) {
+        readDelay = millis;
+    }
+
     void load (Map<String, List<Instance>> services) {
         REPOSITORY.putAll(services);
     }
@@ -234,10 +298,23 @@ public class Server {
 
         @PostConstruct
         public void postConstruct () {
+            objectMapper.registerModule(module());
+        }
+
+        @Bean
+        public HttpMessageConverter<Object> smileHttpMessageConverter () {
+            ObjectMapper smileMapper = new ObjectMapper(new SmileFactory());
+            smileMapper.registerModule(module());
+            MediaType mediaType = MediaType.parseMediaType(WireFormat.SMILE.getMediaType());
+            return new AbstractJackson2HttpMessageConverter(smileMapper, mediaType) {
+            };
+        }
+
+        private SimpleModule module () {
             SimpleModule module = new SimpleModule();
             module.addSerializer(ZonedDateTime.class, new ZonedDateTimeSerializer());
             module.addSerializer(Optional.class, new OptionalSerializer());
-            objectMapper.registerModule(module);
+            return module;
         }
 
         private class ZonedDateTimeSerializer extends StdSerializer<ZonedDateTime> {
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2017 Artem Labazin <xxlabaza@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.xxlabaza.luntic.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.Test;
+
+/**
+ *
+ * @author Artem Labazin <xxlabaza@gmail.com>
+ * @since Oct 18, 2026
+ */
+public class ZoneAwareRouterTest {
+
+    @Test
+    public void prefersLocalZone () {
+        Map<String, List<Instance>> registry = new HashMap<>();
+        registry.put("backend", instances("backend", "a", 2, "b", 2));
+        registry.put("caller", instances("caller", "a", 1, "b", 1));
+
+        ZoneAwareRouter router = router(new RegistrySnapshot(1, registry), "a");
+
+        assertEquals(1.D, router.route("backend").getLocalProbability(), 0.D);
+        for (int i = 0; i < 1000; i++) {
+            assertEquals("a", zone(router.choose("backend")));
+        }
+    }
+
+    @Test
+    public void spillsOverWhenLocalCapacityIsLow () {
+        Map<String, List<Instance>> registry = new HashMap<>();
+        registry.put("backend", instances("backend", "a", 1, "b", 3));
+        registry.put("caller", instances("caller", "a", 1, "b", 1));
+
+        ZoneAwareRouter router = router(new RegistrySnapshot(1, registry), "a");
+
+        // local zone has 25% of backends, but 50% of callers
+        assertEquals(0.5D, router.route("backend").getLocalProbability(), 0.001D);
+
+        int local = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if ("a".equals(zone(router.choose("backend")))) {
+                local++;
+            }
+        }
+        assertTrue(local > 4_500 && local < 5_500);
+    }
+
+    @Test
+    public void spillsOverWhenLocalInstancesAreUnhealthy () {
+        Map<String, List<Instance>> registry = new HashMap<>();
+        registry.put("backend", instances("backend", "a", 2, "b", 2));
+
+        RegistrySnapshot snapshot = new RegistrySnapshot(1, registry);
+        ZoneAwareRouter router = ZoneAwareRouter.builder()
+                .snapshots(() -> snapshot)
+                .zone("a")
+                .healthy(it -> !"a".equals(zone(it)))
+                .build();
+
+        for (int i = 0; i < 1000; i++) {
+            assertEquals("b", zone(router.choose("backend")));
+        }
+    }
+
+    @Test
+    public void unknownGroup () {
+        ZoneAwareRouter router = router(new RegistrySnapshot(1, Collections.emptyMap()), "a");
+        assertNull(router.choose("backend"));
+    }
+
+    @Test
+    public void routesAreRebuiltForNewSnapshot () {
+        Map<String, List<Instance>> registry = new HashMap<>();
+        registry.put("backend", instances("backend", "b", 1));
+
+        AtomicReference<RegistrySnapshot> current = new AtomicReference<>(new RegistrySnapshot(1, registry));
+        ZoneAwareRouter router = ZoneAwareRouter.builder()
+                .snapshots(current::get)
+                .zone("a")
+                .build();
+
+        ZoneAwareRouter.Route route = router.route("backend");
+        assertSame(route, router.route("backend"));
+        assertEquals("b", zone(router.choose("backend")));
+
+        registry.put("backend", instances("backend", "a", 1, "b", 1));
+        current.set(new RegistrySnapshot(2, registry));
+
+        for (int i = 0; i < 1000; i++) {
+            assertEquals("a", zone(router.choose("backend")));
+        }
+    }
+
+    private ZoneAwareRouter router (RegistrySnapshot snapshot, String zone) {
+        return ZoneAwareRouter.builder()
+                .snapshots(() -> snapshot)
+                .zone(zone)
+                .callerGroup("caller")
+                .build();
+    }
+
+    private static String zone (Instance instance) {
+        return instance.getMeta().get().get("zone").toString();
+    }
+
+    private static List<Instance> instances (String group, Object... zoneCounts) {
+        ZonedDateTime now = ZonedDateTime.now();
+        List<Instance> result = new ArrayList<>();
+        for (int i = 0; i < zoneCounts.length; i += 2) {
+            Map<String, Object> meta = Collections.singletonMap("zone", zoneCounts[i]);
+            for (int j = 0; j < (Integer) zoneCounts[i + 1]; j++) {
+                result.add(Instance.builder()
+                        .id(UUID.randomUUID().toString())
+                        .group(group)
+                        .created(now)
+                        .modified(now)
+                        .meta(Optional.of(meta))
+                        .build());
+            }
+        }
+        return result;
+    }
+}